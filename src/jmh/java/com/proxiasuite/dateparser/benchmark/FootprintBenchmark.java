@@ -0,0 +1,197 @@
+package com.proxiasuite.dateparser.benchmark;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crecimiento de la evaluación con ventanas largas, de 1 a 1000 años, para expresiones
+ * representativas: un mes completo, un átomo de varios días, fechas sueltas, un periodo que cruza
+ * el año y un desplazamiento sobre una fiesta móvil.
+ *
+ * El benchmark JMH mide el tiempo de evaluación y, con el profiler de GC, los bytes asignados.
+ * {@link #main} genera además el informe de memoria: para cada expresión y número de años, las
+ * fechas, la estimación de {@link DateExpression#estimateRetainedBytes()}, la memoria retenida
+ * medida en el heap, los bytes asignados y el tiempo de una evaluación. Se ejecuta con
+ * {@code gradle jmhFootprint}.
+ *
+ * La memoria retenida se mide reteniendo copias hasta ocupar {@link #RETAINED_SAMPLE_BYTES},
+ * sea cual sea el tamaño de la expresión, {@link #RETAINED_REPEATS} veces, y se toma la mediana de
+ * las medidas positivas. Si ninguna lo es, porque la recogida de basura ha liberado más de lo
+ * retenido, se informa -1.
+ *
+ * @author David Rodríguez Alfayate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FootprintBenchmark {
+    static final String[] EXPRESSIONS = {
+            "enero",
+            "semana santa",
+            "primer lunes de enero y ultimo viernes de diciembre",
+            "uno de diciembre al seis de enero",
+            "2 semanas despues del miercoles de ceniza"
+    };
+
+    static final int[] YEARS = {1, 10, 100, 1000};
+
+    private static final WeekFields WEEK = WeekFields.of(new Locale("es", "ES"));
+    private static final int FIRST_YEAR = 2024;
+
+    /**
+     * Memoria que ocupan como mínimo las copias que se retienen al medir el heap
+     */
+    private static final long RETAINED_SAMPLE_BYTES = 16L << 20;
+
+    /**
+     * Veces que se mide la memoria retenida
+     */
+    private static final int RETAINED_REPEATS = 5;
+
+    @Param({"enero", "semana santa", "primer lunes de enero y ultimo viernes de diciembre",
+            "uno de diciembre al seis de enero", "2 semanas despues del miercoles de ceniza"})
+    public String expression;
+
+    @Param({"1", "10", "100", "1000"})
+    public int years;
+
+    private DateExpressionPlan plan;
+
+    @Setup
+    public void setUp() {
+        plan = DateExpression.compile(expression);
+    }
+
+    @Benchmark
+    public DateExpression evaluate() {
+        return plan.evaluate(FIRST_YEAR, years, true, WEEK);
+    }
+
+    /**
+     * Genera el informe de memoria, por la salida estándar y en JSON
+     *
+     * @param args El fichero JSON del informe y, opcionalmente, los números de años
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "footprint.json");
+        int[] windows = YEARS;
+        if(args.length > 1) {
+            windows = new int[args.length - 1];
+            for(int i = 1; i < args.length; i++) windows[i - 1] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%-52s %6s %9s %13s %13s %13s %10s%n",
+                          "expresión", "años", "fechas", "estimados(B)", "retenidos(B)", "asignados(B)", "ms");
+        if(output.getParent() != null) Files.createDirectories(output.getParent());
+        try(PrintWriter json = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            json.println("[");
+            boolean first = true;
+            for(String expression: EXPRESSIONS) {
+                DateExpressionPlan plan = DateExpression.compile(expression);
+                for(int years: windows) {
+                    Row row = measure(plan, years);
+                    System.out.printf("%-52s %6d %9d %13d %13d %13d %10.3f%n", expression, years, row.dates,
+                                      row.estimated, row.retained, row.allocated, row.nanos / 1e6);
+                    json.printf("%s  {\"expression\": \"%s\", \"years\": %d, \"dates\": %d, \"estimatedBytes\": %d, " +
+                                "\"retainedBytes\": %d, \"allocatedBytes\": %d, \"evaluationNanos\": %d}",
+                                first ? "" : ",\n", expression, years, row.dates, row.estimated, row.retained,
+                                row.allocated, row.nanos);
+                    first = false;
+                }
+            }
+            json.println();
+            json.println("]");
+        }
+        System.out.println("Informe guardado en " + output.toAbsolutePath());
+    }
+
+    /**
+     * Medidas de una expresión para un número de años
+     */
+    private static final class Row {
+        int dates;
+        long estimated;
+        long retained;
+        long allocated;
+        long nanos;
+    }
+
+    private static Row measure(DateExpressionPlan plan, int years) {
+        Row row = new Row();
+
+        // Calentamos y nos quedamos con la evaluación más rápida
+        row.nanos = Long.MAX_VALUE;
+        for(int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            plan.evaluate(FIRST_YEAR, years, true, WEEK);
+            row.nanos = Math.min(row.nanos, System.nanoTime() - start);
+        }
+
+        long before = allocatedBytes();
+        DateExpression de = plan.evaluate(FIRST_YEAR, years, true, WEEK);
+        row.allocated = before < 0 ? -1 : allocatedBytes() - before;
+        row.dates = de.getDates().size();
+        row.estimated = de.estimateRetainedBytes();
+
+        // Retenemos siempre el mismo volumen para que la medida del heap no se pierda en el ruido
+        int copies = (int) Math.max(1, (RETAINED_SAMPLE_BYTES + row.estimated - 1) / row.estimated);
+        List<Long> readings = new ArrayList<>();
+        for(int repeat = 0; repeat < RETAINED_REPEATS; repeat++) {
+            long reading = retainedBytes(plan, years, copies);
+            // Una medida no positiva sólo indica que la recogida de basura ha liberado otra cosa
+            if(reading > 0) readings.add(reading);
+        }
+        Collections.sort(readings);
+        row.retained = readings.isEmpty() ? -1 : readings.get(readings.size() / 2);
+        return row;
+    }
+
+    /**
+     * Memoria retenida por una evaluación, reteniendo las copias indicadas
+     */
+    private static long retainedBytes(DateExpressionPlan plan, int years, int copies) {
+        DateExpression[] retained = new DateExpression[copies];
+        long used = usedHeap();
+        for(int i = 0; i < copies; i++) {
+            retained[i] = plan.evaluate(FIRST_YEAR, years, true, WEEK);
+        }
+        long bytes = (usedHeap() - used) / copies;
+        if(retained[copies - 1] == null) throw new IllegalStateException();
+        return bytes;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Bytes asignados por el hilo actual, negativo si la JVM no lo soporta
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if(threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
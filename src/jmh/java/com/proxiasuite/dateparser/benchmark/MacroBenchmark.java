@@ -0,0 +1,111 @@
+package com.proxiasuite.dateparser.benchmark;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de extremo a extremo sobre un corpus de expresiones realistas: los ejemplos de la
+ * documentación, las expresiones de las pruebas, preámbulos largos de definiciones, condicionales
+ * y expresiones inválidas. Cada operación resuelve una expresión del corpus, recorriéndolo en orden,
+ * de forma que el rendimiento, los percentiles de latencia y los bytes asignados por operación son
+ * por expresión.
+ *
+ * Las fases son "parse", que sólo compila la expresión, "evaluate", que sólo evalúa los planes
+ * ya compilados de las expresiones válidas, y "full", que resuelve la expresión con
+ * {@link DateExpression#parse}. Los corpus están versionados: uno publicado no se modifica, y sólo
+ * se comparan resultados obtenidos con el mismo corpus. Se ejecuta con {@code gradle jmhMacro}.
+ *
+ * @author David Rodríguez Alfayate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MacroBenchmark {
+    private static final Locale LOCALE = new Locale("es", "ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+    private static final WeekFields WEEK = WeekFields.of(LOCALE);
+    private static final int FIRST_YEAR = 2024;
+
+    /**
+     * Versión del corpus, el fichero corpus-[versión].txt junto a esta clase
+     */
+    @Param({"v1"})
+    public String corpus;
+
+    @Param({"parse", "evaluate", "full"})
+    public String phase;
+
+    /**
+     * Número de años que se resuelven
+     */
+    @Param({"1", "10"})
+    public int years;
+
+    private String[] expressions;
+    private DateExpressionPlan[] plans;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> loaded = load(corpus);
+        List<DateExpressionPlan> compiled = new ArrayList<>();
+        for(String expr: loaded) {
+            DateExpressionPlan plan = DateExpression.compile(expr);
+            if(plan != null) compiled.add(plan);
+        }
+        expressions = loaded.toArray(new String[0]);
+        plans = compiled.toArray(new DateExpressionPlan[0]);
+    }
+
+    @Benchmark
+    public Object run(Cursor cursor) {
+        int next = cursor.next++;
+        switch (phase) {
+            case "parse":
+                return DateExpression.compile(expressions[next % expressions.length]);
+            case "evaluate":
+                return plans[next % plans.length].evaluate(FIRST_YEAR, years, true, WEEK);
+            default:
+                return DateExpression.parse(LOCALE, ZONE, true, FIRST_YEAR, years, expressions[next % expressions.length]);
+        }
+    }
+
+    /**
+     * Carga un corpus: una expresión por línea, sin las líneas vacías ni los comentarios, y con
+     * "\n" como separador de las líneas de las expresiones de varias líneas
+     */
+    static List<String> load(String version) throws IOException {
+        String name = "corpus-" + version + ".txt";
+        List<String> corpus = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(
+                MacroBenchmark.class.getResourceAsStream(name), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(!line.isEmpty() && !line.startsWith("#")) {
+                    corpus.add(line.replace("\\n", "\n"));
+                }
+            }
+        }
+        return corpus;
+    }
+}
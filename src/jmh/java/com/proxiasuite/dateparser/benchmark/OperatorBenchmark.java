@@ -0,0 +1,142 @@
+package com.proxiasuite.dateparser.benchmark;
+
+import com.proxiasuite.dateparser.DateExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de cada operador de {@link DateExpression} según el número de años, el idioma (que fija el
+ * primer día de la semana), el computo de semanas completas y la densidad de las fechas de entrada:
+ * "dense" todos los días del año y "sparse" el uno y el quince de cada mes.
+ *
+ * Se ejecuta, junto con {@link ResolverBenchmark}, con los profilers de GC y asignación de memoria
+ * mediante {@code gradle jmhMicro}.
+ *
+ * @author David Rodríguez Alfayate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmark {
+    private static final DayOfWeek[] MONDAY = {DayOfWeek.MONDAY};
+
+    /**
+     * Número de años de la entrada
+     */
+    @Param({"1", "10", "50"})
+    public int years;
+
+    /**
+     * Idioma, "es-ES" empieza la semana en lunes y "en-US" en domingo
+     */
+    @Param({"es-ES", "en-US"})
+    public String locale;
+
+    @Param({"true", "false"})
+    public boolean fullWeeks;
+
+    /**
+     * Densidad de las fechas de entrada
+     */
+    @Param({"dense", "sparse"})
+    public String density;
+
+    private DateExpression input;
+    private DateExpression other;
+
+    @Setup
+    public void setUp() {
+        WeekFields week = WeekFields.of(Locale.forLanguageTag(locale));
+        List<LocalDate> dates = new ArrayList<>();
+        List<LocalDate> others = new ArrayList<>();
+        for(LocalDate ld = LocalDate.of(2024, 1, 1); ld.getYear() < 2024 + years; ld = ld.plusDays(1)) {
+            if("dense".equals(density) || ld.getDayOfMonth() == 1 || ld.getDayOfMonth() == 15) {
+                dates.add(ld);
+                others.add(ld.plusDays(3));
+            }
+        }
+        input = new DateExpression(week, fullWeeks, dates);
+        other = new DateExpression(week, fullWeeks, others);
+    }
+
+    @Benchmark
+    public DateExpression at() {
+        return input.at(1, 15, -1);
+    }
+
+    @Benchmark
+    public DateExpression atWeekDay() {
+        return input.at(MONDAY, 1, -1);
+    }
+
+    @Benchmark
+    public DateExpression atWeek() {
+        return input.atWeek(1, -1);
+    }
+
+    @Benchmark
+    public DateExpression atWeekend() {
+        return input.atWeekend(1, -1);
+    }
+
+    @Benchmark
+    public DateExpression atFortnight() {
+        return input.atFortnight(1, 2);
+    }
+
+    @Benchmark
+    public DateExpression to() {
+        return input.to(other);
+    }
+
+    @Benchmark
+    public DateExpression and() {
+        return input.and(other);
+    }
+
+    @Benchmark
+    public DateExpression before() {
+        return input.before(3, ChronoUnit.DAYS);
+    }
+
+    @Benchmark
+    public DateExpression beforeWeekDay() {
+        return input.before(DayOfWeek.MONDAY, 1);
+    }
+
+    @Benchmark
+    public DateExpression after() {
+        return input.after(1, ChronoUnit.MONTHS);
+    }
+
+    @Benchmark
+    public DateExpression afterWeekend() {
+        return input.afterWeekend(1);
+    }
+
+    @Benchmark
+    public DateExpression near() {
+        return input.near(DayOfWeek.FRIDAY);
+    }
+
+    @Benchmark
+    public DateExpression nearWeekend() {
+        return input.nearWeekend();
+    }
+
+    @Benchmark
+    public DateExpression compare() {
+        return input.compare(other, DateExpression.Opcode.LESSER, input, other);
+    }
+}
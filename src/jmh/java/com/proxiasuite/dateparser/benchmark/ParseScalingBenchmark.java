@@ -0,0 +1,99 @@
+package com.proxiasuite.dateparser.benchmark;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento del análisis de expresiones con la gramática según el número de hilos, con la caché
+ * DFA compartida por todos los hilos o repartida en una partición por procesador.
+ *
+ * Las expresiones son de las que no reconoce {@link com.proxiasuite.dateparser.parser.FastPathRecognizer},
+ * para que todas pasen por los analizadores de ANTLR. Con {@link #main} se ejecuta de 1 a N hilos
+ * y se muestra la aceleración respecto a un hilo.
+ *
+ * @author David Rodríguez Alfayate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseScalingBenchmark {
+    static final String[] EXPRESSIONS = {
+            "tres dias antes del primer sabado de febrero",
+            "segundo fin de semana antes del primer sabado de febrero",
+            "lunes despues del lunes de pascua",
+            "fin de semana proximo al 14 de julio",
+            "2 semanas despues del miercoles de ceniza",
+            "un mes antes del quince de enero",
+            "uno de diciembre al seis de enero",
+            "def navidad: 31 de diciembre\r\ndef annonuevo: 1 de enero\r\nde navidad a annonuevo",
+            "si sabado de carnaval es igual a segundo sabado de febrero\r\n" +
+                    "entonces primer fin de semana de marzo \r\nsi no ultimo fin de semana de abril\r\n"
+    };
+
+    /**
+     * Particiones de la caché DFA: "shared" una para todos los hilos, "perProcessor" una por procesador
+     */
+    @Param({"shared", "perProcessor"})
+    public String dfa;
+
+    private GrammarDfaCache previous;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        previous = GrammarDfaCache.getDefault();
+        GrammarDfaCache.setDefault("shared".equals(dfa) ? new GrammarDfaCache(GrammarDfaCache.DEFAULT_MAX_STATES)
+                                                        : GrammarDfaCache.perProcessor(GrammarDfaCache.DEFAULT_MAX_STATES));
+    }
+
+    @TearDown
+    public void tearDown() {
+        GrammarDfaCache.setDefault(previous);
+    }
+
+    @Benchmark
+    public DateExpressionPlan compile(Cursor cursor) {
+        String expr = EXPRESSIONS[cursor.next++ % EXPRESSIONS.length];
+        return DateExpression.compile(expr);
+    }
+
+    /**
+     * Ejecuta el benchmark de 1 a N hilos, doblando el número de hilos, y muestra la aceleración
+     *
+     * @param args Opcionalmente, el número máximo de hilos; por defecto el número de procesadores
+     */
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        for(String dfa: new String[]{"shared", "perProcessor"}) {
+            double single = 0;
+            System.out.printf("%-13s %7s %15s %9s%n", "dfa", "hilos", "ops/s", "acel.");
+            for(int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+                Options options = new OptionsBuilder()
+                        .include(ParseScalingBenchmark.class.getSimpleName())
+                        .param("dfa", dfa)
+                        .threads(threads)
+                        .build();
+                RunResult result = new Runner(options).runSingle();
+                double score = result.getPrimaryResult().getScore();
+                if(threads == 1) single = score;
+                System.out.printf("%-13s %7d %15.0f %8.2fx%n", dfa, threads, score, score / single);
+            }
+        }
+    }
+}
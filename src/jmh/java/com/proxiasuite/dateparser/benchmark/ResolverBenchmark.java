@@ -0,0 +1,69 @@
+package com.proxiasuite.dateparser.benchmark;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
+import com.proxiasuite.dateparser.resolver.DateType;
+import com.proxiasuite.dateparser.resolver.IDateResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de cada {@link IDateResolver} según el número de años, el idioma y el computo de semanas
+ * completas: {@link #resolve} calcula las fechas en cada llamada y {@link #registry} las obtiene de
+ * la caché de {@link DateResolverRegistry}. Sin valores para {@link #dateType} se mide cada tipo
+ * de fecha; los meses son entradas densas y las fiestas entradas dispersas.
+ *
+ * @author David Rodríguez Alfayate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolverBenchmark {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Param
+    public DateType dateType;
+
+    /**
+     * Número de años que se resuelven
+     */
+    @Param({"1", "10", "50"})
+    public int years;
+
+    /**
+     * Idioma, "es-ES" empieza la semana en lunes y "en-US" en domingo
+     */
+    @Param({"es-ES", "en-US"})
+    public String locale;
+
+    @Param({"true", "false"})
+    public boolean fullWeeks;
+
+    private IDateResolver resolver;
+    private Locale lang;
+    private WeekFields week;
+
+    @Setup
+    public void setUp() {
+        resolver = DateResolverRegistry.getDefault().get(dateType);
+        lang = Locale.forLanguageTag(locale);
+        week = WeekFields.of(lang);
+    }
+
+    @Benchmark
+    public DateExpression resolve() {
+        return resolver.resolve(2024, years, fullWeeks, lang, ZONE);
+    }
+
+    @Benchmark
+    public DateExpression registry() {
+        return DateResolverRegistry.getDefault().resolve(dateType, 2024, years, fullWeeks, week);
+    }
+}
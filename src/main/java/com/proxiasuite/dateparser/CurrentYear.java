@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Año actual en cada zona horaria según un reloj. El año se guarda junto con el instante en el que
+ * empieza y el instante en el que termina en esa zona, de forma que sólo se vuelve a calcular cuando
+ * el reloj cruza el cambio de año de la zona (o retrocede antes de su comienzo). Entre medias
+ * basta con leer los milisegundos del reloj.
+ *
+ * Es segura para uso concurrente.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class CurrentYear {
+    /**
+     * Año de una zona y los instantes, en milisegundos, en los que empieza y termina
+     */
+    private static final class Year {
+        private final int year;
+        private final long start;
+        private final long end;
+
+        private Year(int year, ZoneId zoneId) {
+            this.year = year;
+            this.start = LocalDate.of(year, 1, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+            this.end = LocalDate.of(year + 1, 1, 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * Reloj de referencia
+     */
+    private final Clock clock;
+
+    /**
+     * Año vigente de cada zona
+     */
+    private final Map<ZoneId, Year> years = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param clock El reloj de referencia
+     */
+    public CurrentYear(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Año actual en la zona del reloj
+     *
+     * @return El año actual
+     */
+    public int get() {
+        return get(clock.getZone());
+    }
+
+    /**
+     * Año actual en una zona horaria
+     *
+     * @param zoneId La zona horaria
+     * @return El año actual en esa zona
+     */
+    public int get(ZoneId zoneId) {
+        long now = clock.millis();
+        Year current = years.get(zoneId);
+        if(current == null || now < current.start || now >= current.end) {
+            current = new Year(Instant.ofEpochMilli(now).atZone(zoneId).getYear(), zoneId);
+            years.put(zoneId, current);
+        }
+        return current.year;
+    }
+
+    /**
+     * Reloj de referencia
+     *
+     * @return El reloj
+     */
+    public Clock getClock() {
+        return clock;
+    }
+}
@@ -23,13 +23,30 @@
  */
 package com.proxiasuite.dateparser;
 
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.FlightRecorderEvents;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.SlowExpressionLog;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import com.proxiasuite.dateparser.parser.FastPathRecognizer;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import com.proxiasuite.dateparser.parser.PlanExplanation;
 import com.proxiasuite.dateparser.parser.DateExpressionVisitor;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
+import com.proxiasuite.dateparser.resolver.DateType;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.time.temporal.WeekFields;
@@ -45,6 +62,11 @@ import java.util.stream.Stream;
  * @author David Rodríguez Alfayate 
  */
 public class DateExpression {
+    /**
+     * Veces que se analiza y evalúa el corpus al calentar la librería
+     */
+    public static final int WARM_UP_ROUNDS = 10;
+
     /**
      * Lista de las operaciones posibls que tenemos con expresiones a la hora de comparar
      */
@@ -66,6 +88,19 @@ public class DateExpression {
             return false;
         }
     }
+    /*
+     * Tamaños, en bytes, de los objetos que retiene una expresión en una JVM de 64 bits con
+     * referencias comprimidas, para estimateRetainedBytes
+     */
+    static final int EXPRESSION_BYTES = 24;
+    static final int TREE_MAP_BYTES = 48;
+    static final int TREE_MAP_ENTRY_BYTES = 40;
+    static final int INTEGER_BYTES = 16;
+    static final int ARRAY_LIST_BYTES = 24;
+    static final int ARRAY_HEADER_BYTES = 16;
+    static final int REFERENCE_BYTES = 4;
+    static final int LOCAL_DATE_BYTES = 24;
+
     /**
      * La lista de fechas de esta expresión
      */
@@ -86,7 +121,7 @@ public class DateExpression {
      */
     boolean approximate;
 
-    private DateExpression(WeekFields week,boolean fullWeks, NavigableMap<Integer,List<LocalDate>> dates) {
+    DateExpression(WeekFields week,boolean fullWeks, NavigableMap<Integer,List<LocalDate>> dates) {
         this.dates = new TreeMap<>(dates);
         this.week = week;
         this.fullWeks = fullWeks;
@@ -110,9 +145,11 @@ public class DateExpression {
     /**
      * Constructor, recibe las fechas sobre las que se opera
      *
-     * @param dates Array de fechas en las que operamos
+     * @param week      Semana del idioma de trabajo
+     * @param fullWeks  Si se considera que las semanas son completas
+     * @param dates     Array de fechas en las que operamos
      */
-    private DateExpression(WeekFields week, boolean fullWeks, List<LocalDate> dates) {
+    public DateExpression(WeekFields week, boolean fullWeks, List<LocalDate> dates) {
         this.dates = new TreeMap<>();
         this.week = week;
         this.fullWeks = fullWeks;
@@ -635,6 +672,124 @@ public class DateExpression {
         return getDatesAsStream().collect(Collectors.toList());
     }
 
+    /**
+     * Número de fechas de la expresión, sin generar copias
+     *
+     * @return El número de fechas
+     */
+    public int getDateCount() {
+        int count = 0;
+        for(List<LocalDate> yearDates: dates.values()) {
+            count += yearDates.size();
+        }
+        return count;
+    }
+
+    /**
+     * Obtiene los años para los que esta expresión tiene alguna fecha, ordenados de forma ascendente.
+     *
+     * @return Vista no modificable de los años de la expresión
+     */
+    public NavigableSet<Integer> getYears() {
+        return Collections.unmodifiableNavigableSet(dates.navigableKeySet());
+    }
+
+    /**
+     * Obtiene las fechas de un año concreto, ordenadas y sin duplicados, sin generar copias.
+     *
+     * @param year  El año del que queremos las fechas
+     * @return Vista no modificable de las fechas del año, vacía si no hay ninguna
+     */
+    public List<LocalDate> getDates(int year) {
+        List<LocalDate> yearDates = dates.get(year);
+        return yearDates == null ? Collections.emptyList() : Collections.unmodifiableList(yearDates);
+    }
+
+    /**
+     * Estima la memoria que retiene la expresión: el mapa de años, las listas anuales y las fechas,
+     * con las medidas de una JVM de 64 bits con referencias comprimidas. No cuenta la semana del
+     * idioma, que es compartida, y cuenta completas las listas y fechas que la expresión comparte
+     * con otras (por ejemplo con la caché de los resolutores). Los arrays de las listas se cuentan
+     * por su número de fechas y no por su capacidad, que puede ser mayor, así que
+     * es una estimación y no una cota: sirve para dimensionar cachés y fijar límites con margen.
+     *
+     * @return El número estimado de bytes retenidos
+     */
+    public long estimateRetainedBytes() {
+        long bytes = EXPRESSION_BYTES + TREE_MAP_BYTES;
+        for(List<LocalDate> yearDates: dates.values()) {
+            bytes += TREE_MAP_ENTRY_BYTES + INTEGER_BYTES + ARRAY_LIST_BYTES
+                     + align(ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * yearDates.size())
+                     + (long) LOCAL_DATE_BYTES * yearDates.size();
+        }
+        return bytes;
+    }
+
+    /**
+     * Redondea un tamaño al alineamiento de los objetos
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Exporta las fechas de la expresión como intervalos semiabiertos [inicio, fin) de milisegundos
+     * desde la época, en una zona horaria. Los días consecutivos se fusionan en un único intervalo y
+     * los límites de cada día se calculan con las reglas de la zona, de modo que los días afectados por
+     * un cambio de horario duran lo que corresponde (y si la medianoche no existe, el día empieza en la
+     * primera hora válida).
+     *
+     * El array contiene los extremos en orden: inicio0, fin0, inicio1, fin1, ... y está pensado para
+     * consultarse con {@link #containsEpochMilli(long[], long)} sin crear objetos de fecha.
+     *
+     * @param zoneId    La zona horaria en la que se interpretan los días
+     * @return Los extremos de los intervalos, ordenados de forma estrictamente creciente
+     */
+    public long[] toEpochMilliIntervals(ZoneId zoneId) {
+        int count = getDateCount();
+        long [] intervals = new long[count * 2];
+        int size = 0;
+        LocalDate previous = null;
+        for(List<LocalDate> yearDates: dates.values()) {
+            for(LocalDate ld: yearDates) {
+                if(previous == null || previous.toEpochDay() + 1 != ld.toEpochDay()) {
+                    if(previous != null) {
+                        intervals[size++] = previous.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+                    }
+                    intervals[size++] = ld.atStartOfDay(zoneId).toInstant().toEpochMilli();
+                }
+                previous = ld;
+            }
+        }
+        if(previous != null) {
+            intervals[size++] = previous.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        return size == intervals.length ? intervals : Arrays.copyOf(intervals, size);
+    }
+
+    /**
+     * Indica si un instante, en milisegundos desde la época, cae dentro de alguno de los intervalos
+     * generados por {@link #toEpochMilliIntervals(ZoneId)}. Es una búsqueda binaria del número de
+     * extremos menores o iguales que el instante: si es impar estamos dentro de un intervalo.
+     *
+     * @param intervals     Los extremos de los intervalos
+     * @param epochMilli    El instante a consultar
+     * @return Si el instante está dentro de algún intervalo
+     */
+    public static boolean containsEpochMilli(long[] intervals, long epochMilli) {
+        int low = 0;
+        int high = intervals.length;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(intervals[mid] <= epochMilli) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (low & 1) == 1;
+    }
+
     /**
      * Método estático que genera una expresión de fecha a partir de una expresión,
      * utiliza la gramática para resolver la misma
@@ -651,8 +806,25 @@ public class DateExpression {
      */
     public static DateExpression parse(Locale locale, ZoneId zoneId, boolean fullWeeks, int years,
                                        String expr) {
-        return parse(locale,zoneId,fullWeeks,LocalDate.now(zoneId).getYear(),years,expr);
+        return parse(locale,Clock.system(zoneId),fullWeeks,years,expr);
+
+    }
 
+    /**
+     * Método estático que genera una expresión de fecha a partir de una expresión, comenzando en el
+     * año actual según el reloj indicado, que se consulta una única vez.
+     *
+     * @param locale    El idioma asociado
+     * @param clock     El reloj del que obtenemos el año actual y la zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     Para cuantos años resolvemos la expresión
+     * @param expr      Texto con la expresión a resolver.
+     *
+     * @return Una expresión de fecha a partir de la gramática.
+     */
+    public static DateExpression parse(Locale locale, Clock clock, boolean fullWeeks, int years,
+                                       String expr) {
+        return parse(locale,clock.getZone(),fullWeeks,LocalDate.now(clock).getYear(),years,expr);
     }
 
     /**
@@ -673,15 +845,152 @@ public class DateExpression {
     public static DateExpression parse(Locale locale, ZoneId zoneId, boolean fullWeeks, int firstYear,
                                        int years,
                                        String expr) {
-        DateExpressionVisitor dev = new DateExpressionVisitor(zoneId,locale,firstYear,years,fullWeeks);
+        SlowExpressionLog log = SlowExpressionLog.getDefault();
+        if(log == null) {
+            DateExpressionPlan plan = compile(expr);
+            return plan == null ? null : plan.evaluate(firstYear,years,fullWeeks,WeekFields.of(locale));
+        }
+        long start = System.nanoTime();
+        DateExpressionPlan plan = compile(expr);
+        long compiled = System.nanoTime();
+        DateExpression de = plan == null ? null : plan.evaluate(firstYear,years,fullWeeks,WeekFields.of(locale));
+        log.record(expr,firstYear,years,fullWeeks,compiled - start,de == null ? 0 : System.nanoTime() - compiled,de);
+        return de;
+    }
 
-        com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser pp =
-                new com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser(new CommonTokenStream(new com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer(CharStreams.fromString(expr))));
-        pp.addParseListener(dev);
-        pp.prog();
-        return dev.getDateExpression();
+    /**
+     * Compila una expresión a un plan de ejecución, que se puede evaluar para cualquier ventana
+     * de años sin volver a analizar el texto.
+     *
+     * @param expr  Texto con la expresión a compilar.
+     *
+     * @return El plan de ejecución, nulo si la expresión no es válida
+     * @throws DateExpressionLimitException Si la expresión supera los límites de {@link DateExpressionLimits}
+     */
+    public static DateExpressionPlan compile(String expr) {
+        DateExpressionLimits.getDefault().checkLength(expr);
+        Object event = FlightRecorderEvents.beginParse();
+        // Las formas habituales no necesitan la gramática
+        DateExpressionPlan plan = FastPathRecognizer.compile(expr,DateExpressionMetrics.getDefault());
+        if(plan == null) {
+            DateExpressionVisitor dev = new DateExpressionVisitor(ZoneOffset.UTC,Locale.ROOT,0,0,false);
+            run(dev,expr,DateExpressionMetrics.getDefault());
+            plan = dev.getPlan();
+        }
+        FlightRecorderEvents.endParse(event,expr,plan != null);
+        return plan;
+    }
+
+    /**
+     * Explica la evaluación de una expresión (EXPLAIN ANALYZE): el árbol de operaciones con las
+     * fechas que recibe y produce cada una por año y su tiempo, para localizar qué parte de una
+     * regla es la costosa.
+     *
+     * @param locale    El idioma asociado
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param firstYear El año con el que comenzamos
+     * @param years     Para cuantos años resolvemos la expresión
+     * @param expr      Texto con la expresión a explicar.
+     *
+     * @return La explicación, nula si la expresión no es válida
+     * @see DateExpressionPlan#explain
+     */
+    public static PlanExplanation explain(Locale locale, boolean fullWeeks, int firstYear, int years, String expr) {
+        DateExpressionPlan plan = compile(expr);
+        return plan == null ? null : plan.explain(firstYear,years,fullWeeks,WeekFields.of(locale));
+    }
 
+    /**
+     * Corpus de calentamiento incluido en la librería, con los ejemplos de la documentación y de
+     * las pruebas
+     *
+     * @return Las expresiones del corpus
+     */
+    public static List<String> getWarmUpCorpus() {
+        List<String> corpus = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(
+                DateExpression.class.getResourceAsStream("warmup.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(!line.isEmpty() && !line.startsWith("#")) {
+                    corpus.add(line.replace("\\n", "\n"));
+                }
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return corpus;
+    }
 
+    /**
+     * Calienta la librería con la configuración por defecto (idioma y zona del sistema, semanas
+     * completas, año actual y el siguiente)
+     *
+     * @param corpus Las expresiones con las que calentamos, nulo para el corpus incluido
+     * @return El número de expresiones válidas del corpus
+     * @see #warmUp(Locale, ZoneId, boolean, int, int, Collection)
+     */
+    public static int warmUp(Collection<String> corpus) {
+        ZoneId zoneId = ZoneId.systemDefault();
+        return warmUp(Locale.getDefault(),zoneId,true,LocalDate.now(zoneId).getYear(),2,corpus);
+    }
+
+    /**
+     * Calienta la librería para que las primeras llamadas a {@link #parse} no sean más lentas que
+     * las siguientes: carga la gramática, resuelve los átomos de la ventana de años y analiza y
+     * evalúa {@link #WARM_UP_ROUNDS} veces el corpus. En cada ronda cada expresión pasa una vez por
+     * la gramática, aunque la reconozca {@link FastPathRecognizer}, y se llenan las tablas de todas
+     * las particiones de la caché DFA de {@link GrammarDfaCache#getDefault()}. Los análisis y las
+     * evaluaciones del calentamiento no se notifican al receptor de métricas.
+     *
+     * @param locale    El idioma asociado
+     * @param zoneId    La zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param firstYear El año con el que comenzamos
+     * @param years     Para cuantos años resolvemos las expresiones
+     * @param corpus    Las expresiones con las que calentamos, nulo para el corpus incluido
+     * @return El número de expresiones válidas del corpus
+     */
+    public static int warmUp(Locale locale, ZoneId zoneId, boolean fullWeeks, int firstYear, int years,
+                             Collection<String> corpus) {
+        if(corpus == null) corpus = getWarmUpCorpus();
+        WeekFields week = WeekFields.of(locale);
+        for(DateType dateType: DateType.values()) {
+            DateResolverRegistry.getDefault().resolve(dateType,firstYear,years,fullWeeks,week);
+        }
+        GrammarDfaCache.getDefault().warmUp(corpus);
+        int valid = 0;
+        for(int round = 0; round < WARM_UP_ROUNDS; round++) {
+            valid = 0;
+            for(String expr: corpus) {
+                DateExpressionLimits.getDefault().checkLength(expr);
+                DateExpressionVisitor dev = new DateExpressionVisitor(zoneId,locale,firstYear,years,fullWeeks);
+                run(dev,expr,DateExpressionMetrics.NONE);
+                // Se evalúa el plan que usaría parse: el de la forma habitual si se reconoce
+                DateExpressionPlan plan = FastPathRecognizer.compile(expr,DateExpressionMetrics.NONE);
+                if(plan == null) plan = dev.getPlan();
+                if(plan != null) {
+                    plan.evaluate(firstYear,years,fullWeeks,week,DateExpressionMetrics.NONE);
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Analiza una expresión con el visitante indicado
+     */
+    private static void run(DateExpressionVisitor dev, String expr, IDateExpressionMetrics metrics) {
+        com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer lexer =
+                new com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer(CharStreams.fromString(expr));
+        com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser pp =
+                new com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser(new CommonTokenStream(lexer));
+        GrammarDfaCache.getDefault().install(lexer,pp);
+        dev.attach(pp);
+        dev.parse(pp,expr,metrics);
+        GrammarDfaCache.getDefault().afterParse();
     }
 
 
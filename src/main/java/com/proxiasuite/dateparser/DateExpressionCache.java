@@ -0,0 +1,381 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.FlightRecorderEvents;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.*;
+
+/**
+ * Caché de resultados de expresiones de fecha que guarda el resultado año a año. Una petición
+ * cuya ventana de años ya está evaluada se resuelve recortando los años guardados, y si sólo
+ * están evaluados parte de los años, únicamente se evalúan los que faltan. Así "2025 + 1",
+ * "2025 + 2" y "2024 + 10" de la misma expresión comparten los años en común.
+ *
+ * Los años se evalúan como en {@link DateHorizon}, con margen en las costuras, de forma que cada
+ * año guardado es independiente de la ventana con la que se pidió. La expresión se compila sólo
+ * la primera vez y los años que faltan se obtienen evaluando su plan de ejecución.
+ *
+ * El tamaño de la caché se mide por el número de fechas que guarda. Los años sin fechas y las
+ * expresiones inválidas pesan uno, de forma que también cuentan para el límite. Cuando se supera
+ * el peso máximo se descartan las expresiones usadas hace más tiempo. Es segura para uso concurrente:
+ * la evaluación se hace fuera del bloqueo, que sólo protege las estructuras de la caché.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionCache {
+    /**
+     * Clave de una expresión en la caché
+     */
+    private static final class Key {
+        private final String expression;
+        private final Locale locale;
+        private final ZoneId zoneId;
+        private final boolean fullWeeks;
+
+        private Key(String expression, Locale locale, ZoneId zoneId, boolean fullWeeks) {
+            this.expression = expression;
+            this.locale = locale;
+            this.zoneId = zoneId;
+            this.fullWeeks = fullWeeks;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return fullWeeks == k.fullWeeks && expression.equals(k.expression) &&
+                   locale.equals(k.locale) && zoneId.equals(k.zoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expression, locale, zoneId, fullWeeks);
+        }
+    }
+
+    /**
+     * Años evaluados de una expresión, incluidos los que no tienen fechas
+     */
+    private static final class Entry {
+        private final NavigableMap<Integer, List<LocalDate>> years = new TreeMap<>();
+        private DateExpressionPlan plan;
+        private boolean invalid;
+        private long weight;
+    }
+
+    /**
+     * Peso máximo, en número de fechas
+     */
+    private final long maxWeight;
+
+    /**
+     * Entradas en orden de acceso
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Peso total de la caché
+     */
+    private long weight;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long evaluatedYears;
+
+    /**
+     * Año actual de cada zona, para las peticiones que empiezan en el año actual
+     */
+    private final CurrentYear currentYear;
+
+    /**
+     * Constructor, el año actual se obtiene del reloj del sistema
+     *
+     * @param maxWeight Número máximo de fechas que guarda la caché
+     */
+    public DateExpressionCache(long maxWeight) {
+        this(maxWeight, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxWeight Número máximo de fechas que guarda la caché
+     * @param clock     Reloj del que se obtiene el año actual
+     */
+    public DateExpressionCache(long maxWeight, Clock clock) {
+        if(maxWeight <= 0) {
+            throw new IllegalArgumentException("El peso máximo debe ser positivo: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.currentYear = new CurrentYear(clock);
+    }
+
+    /**
+     * Resuelve una expresión a partir del año actual en la zona indicada. Como la caché guarda los
+     * resultados por año, al cambiar de año la ventana se desplaza sola: los años ya evaluados
+     * siguen siendo válidos y sólo se evalúa el año que entra.
+     *
+     * @param locale    El idioma asociado
+     * @param zoneId    La zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     El número de años
+     * @param expr      Texto con la expresión a resolver.
+     *
+     * @return Una nueva expresión con las fechas de los años pedidos, nula si la expresión no es válida
+     */
+    public DateExpression get(Locale locale, ZoneId zoneId, boolean fullWeeks, int years, String expr) {
+        return get(locale, zoneId, fullWeeks, currentYear.get(zoneId), years, expr);
+    }
+
+    /**
+     * Resuelve una expresión, evaluando sólo los años que no están en la caché
+     *
+     * @param locale    El idioma asociado
+     * @param zoneId    La zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param expr      Texto con la expresión a resolver.
+     *
+     * @return Una nueva expresión con las fechas de los años pedidos, nula si la expresión no es válida
+     * @throws IllegalArgumentException Si el número de años no es positivo
+     * @throws DateExpressionLimitException Si la petición supera los límites de {@link DateExpressionLimits}
+     */
+    public DateExpression get(Locale locale, ZoneId zoneId, boolean fullWeeks, int firstYear, int years, String expr) {
+        if(years <= 0) {
+            throw new IllegalArgumentException("El número de años debe ser positivo: " + years);
+        }
+        // Se comprueba la ventana pedida aunque sólo falte evaluar parte de ella
+        DateExpressionLimits.getDefault().checkYears(years);
+        Key key = new Key(expr, locale, zoneId, fullWeeks);
+        int lastYear = firstYear + years - 1;
+        List<int[]> missing;
+        DateExpressionPlan plan = null;
+        // Resultado si está en la caché, nulo también si la expresión es inválida
+        DateExpression hit = null;
+        Object event = FlightRecorderEvents.beginCacheLookup();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if(entry != null && entry.invalid) {
+                hitCount++;
+                missing = Collections.emptyList();
+            } else {
+                missing = missingRanges(entry, firstYear, lastYear);
+                if(missing.isEmpty()) {
+                    hitCount++;
+                    hit = slice(entry, locale, fullWeeks, firstYear, lastYear);
+                } else {
+                    if(entry != null) plan = entry.plan;
+                    missCount++;
+                }
+            }
+        }
+        // Las métricas se notifican fuera del bloqueo
+        FlightRecorderEvents.endCacheLookup(event, DateExpressionMetrics.RESULT_CACHE, expr, missing.isEmpty());
+        IDateExpressionMetrics metrics = DateExpressionMetrics.getDefault();
+        if(missing.isEmpty()) {
+            if(metrics != DateExpressionMetrics.NONE) metrics.onCacheHit(DateExpressionMetrics.RESULT_CACHE);
+            return hit;
+        }
+        if(metrics != DateExpressionMetrics.NONE) metrics.onCacheMiss(DateExpressionMetrics.RESULT_CACHE);
+
+        // Compilamos (sólo la primera vez) y evaluamos fuera del bloqueo los tramos que faltan
+        if(plan == null) {
+            plan = DateExpression.compile(expr);
+            if(plan == null) {
+                synchronized (this) {
+                    Entry invalid = new Entry();
+                    invalid.invalid = true;
+                    invalid.weight = 1;
+                    Entry previous = entries.put(key, invalid);
+                    weight += invalid.weight - (previous == null ? 0 : previous.weight);
+                    evict();
+                }
+                return null;
+            }
+        }
+        WeekFields week = WeekFields.of(locale);
+        List<NavigableMap<Integer, List<LocalDate>>> evaluated = new ArrayList<>(missing.size());
+        for(int[] range: missing) {
+            DateExpression de = DateHorizon.evaluate(plan, fullWeeks, week, range[0], range[1] - range[0] + 1);
+            NavigableMap<Integer, List<LocalDate>> slice = new TreeMap<>();
+            for(int year = range[0]; year <= range[1]; year++) {
+                slice.put(year, de.dates.getOrDefault(year, Collections.emptyList()));
+            }
+            evaluated.add(slice);
+        }
+
+        synchronized (this) {
+            Entry entry = entries.computeIfAbsent(key, k->new Entry());
+            entry.plan = plan;
+            for(NavigableMap<Integer, List<LocalDate>> slice: evaluated) {
+                for(Map.Entry<Integer, List<LocalDate>> e: slice.entrySet()) {
+                    List<LocalDate> previous = entry.years.put(e.getKey(), e.getValue());
+                    long delta = weight(e.getValue()) - (previous == null ? 0 : weight(previous));
+                    entry.weight += delta;
+                    weight += delta;
+                    if(previous == null) evaluatedYears++;
+                }
+            }
+            DateExpression result = slice(entry, locale, fullWeeks, firstYear, lastYear);
+            evict();
+            return result;
+        }
+    }
+
+    /**
+     * Descarta todas las entradas de la caché
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Número de expresiones en la caché
+     *
+     * @return El número de expresiones
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Peso actual de la caché
+     *
+     * @return El número de fechas guardadas, más uno por cada año vacío y expresión inválida
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Peso máximo de la caché
+     *
+     * @return El número máximo de fechas
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Peticiones resueltas sin evaluar ningún año
+     *
+     * @return El número de aciertos
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Peticiones que han necesitado evaluar algún año
+     *
+     * @return El número de fallos
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Expresiones descartadas por peso
+     *
+     * @return El número de descartes
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Años evaluados y guardados en la caché desde su creación
+     *
+     * @return El número de años evaluados
+     */
+    public synchronized long getEvaluatedYears() {
+        return evaluatedYears;
+    }
+
+    /**
+     * Tramos contiguos de años que faltan en una entrada
+     */
+    private static List<int[]> missingRanges(Entry entry, int firstYear, int lastYear) {
+        List<int[]> missing = new ArrayList<>();
+        int start = firstYear;
+        while(start <= lastYear) {
+            if(entry != null && entry.years.containsKey(start)) {
+                start++;
+            } else {
+                Integer next = entry == null ? null : entry.years.ceilingKey(start);
+                int end = next == null ? lastYear : Math.min(lastYear, next - 1);
+                missing.add(new int[]{start, end});
+                start = end + 1;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Peso de un año guardado, al menos uno aunque no tenga fechas
+     */
+    private static long weight(List<LocalDate> dates) {
+        return Math.max(1, dates.size());
+    }
+
+    /**
+     * Construye la expresión con los años pedidos, compartiendo las listas anuales
+     */
+    private static DateExpression slice(Entry entry, Locale locale, boolean fullWeeks, int firstYear, int lastYear) {
+        NavigableMap<Integer, List<LocalDate>> dates = new TreeMap<>();
+        for(Map.Entry<Integer, List<LocalDate>> e: entry.years.subMap(firstYear, true, lastYear, true).entrySet()) {
+            if(!e.getValue().isEmpty()) {
+                dates.put(e.getKey(), e.getValue());
+            }
+        }
+        DateExpression de = new DateExpression(WeekFields.of(locale), fullWeeks, dates);
+        de.setApproximate(entry.plan.isApproximate());
+        return de;
+    }
+
+    /**
+     * Descarta las entradas usadas hace más tiempo hasta volver al peso máximo
+     */
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while(weight > maxWeight && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            weight -= entry.weight;
+            evictionCount++;
+        }
+    }
+}
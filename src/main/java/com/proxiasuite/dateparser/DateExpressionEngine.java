@@ -0,0 +1,548 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser;
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.FlightRecorderEvents;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.SlowExpressionLog;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import com.proxiasuite.dateparser.parser.DateExpressionVisitor;
+import com.proxiasuite.dateparser.parser.FastPathRecognizer;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import com.proxiasuite.dateparser.parser.PlanExplanation;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
+import com.proxiasuite.dateparser.resolver.DateType;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor de resolución de expresiones de fecha configurado una única vez con el idioma, la zona
+ * horaria (a través de un reloj), el tipo de semana y el número de años, pensado para resolver
+ * muchas expresiones seguidas.
+ *
+ * A diferencia de {@link DateExpression#parse}, no construye en cada llamada el analizador léxico,
+ * el flujo de tokens, el analizador sintáctico y el visitante: cada hilo mantiene una sesión con
+ * todos ellos que se reinicia con la nueva expresión. Además cada expresión se compila una única
+ * vez a su plan de ejecución, y las siguientes llamadas sólo evalúan el plan. Los átomos (meses,
+ * semana santa...) de la ventana de años se resuelven por adelantado en la caché de
+ * {@link DateResolverRegistry}. Las cachés DFA de los analizadores son las de
+ * {@link GrammarDfaCache#getDefault()} o las indicadas en el constructor, y se vacían al superar
+ * su tamaño máximo.
+ *
+ * El resultado es el mismo que el de {@link DateExpression#parse} con la misma configuración. Es
+ * seguro para uso concurrente.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionEngine {
+    /**
+     * Número máximo de planes compilados que se guardan, al superarlo se descartan los usados
+     * hace más tiempo
+     */
+    public static final int MAX_PLANS = 4096;
+
+    /**
+     * Número máximo de expresiones inválidas que se recuerdan, aparte de los planes para que no
+     * los desplacen
+     */
+    public static final int MAX_INVALID_PLANS = 256;
+
+    /**
+     * Plan guardado, con los límites de {@link DateExpressionLimits} con los que se compiló
+     */
+    private static final class CachedPlan {
+        private final DateExpressionPlan plan;
+        private final DateExpressionLimits limits;
+
+        private CachedPlan(DateExpressionPlan plan, DateExpressionLimits limits) {
+            this.plan = plan;
+            this.limits = limits;
+        }
+    }
+
+    /**
+     * Elementos reutilizables para resolver expresiones en un hilo. No referencia al motor: la
+     * sesión es el valor de un {@link ThreadLocal} del propio motor, y si lo referenciase el motor
+     * no se liberaría mientras viva el hilo, por ejemplo en un pool.
+     */
+    private static final class Session {
+        private final DateExpressionGrammarLexer lexer = new DateExpressionGrammarLexer(CharStreams.fromString(""));
+        private final CommonTokenStream tokens = new CommonTokenStream(lexer);
+        private final DateExpressionGrammarParser parser = new DateExpressionGrammarParser(tokens);
+        private final DateExpressionVisitor visitor;
+        private final GrammarDfaCache dfaCache;
+        private final int years;
+        private boolean inUse;
+
+        private Session(ZoneId zoneId, Locale locale, int years, boolean fullWeeks, GrammarDfaCache dfaCache) {
+            this.dfaCache = dfaCache;
+            this.years = years;
+            visitor = new DateExpressionVisitor(zoneId, locale, 0, years, fullWeeks);
+            visitor.attach(parser);
+            dfaCache.install(lexer, parser);
+        }
+
+        private DateExpressionPlan compile(String expr, IDateExpressionMetrics metrics) {
+            if(!dfaCache.isInstalled(parser)) {
+                // Se ha vaciado la caché DFA, pasamos a las tablas nuevas
+                dfaCache.install(lexer, parser);
+            }
+            lexer.setInputStream(CharStreams.fromString(expr));
+            tokens.setTokenSource(lexer);
+            parser.setTokenStream(tokens);
+            visitor.reset(0, years);
+            visitor.parse(parser, expr, metrics);
+            dfaCache.afterParse();
+            return visitor.getPlan();
+        }
+    }
+
+    /**
+     * Idioma de trabajo
+     */
+    private final Locale locale;
+
+    /**
+     * Zona horaria de trabajo
+     */
+    private final ZoneId zoneId;
+
+    /**
+     * Si soportamos semanas completas o parciales
+     */
+    private final boolean fullWeeks;
+
+    /**
+     * Número de años que resolvemos
+     */
+    private final int years;
+
+    /**
+     * Año actual según el reloj
+     */
+    private final CurrentYear currentYear;
+
+    /**
+     * Semana del idioma de trabajo
+     */
+    private final WeekFields week;
+
+    /**
+     * Cachés DFA de los analizadores de las sesiones
+     */
+    private final GrammarDfaCache dfaCache;
+
+    /**
+     * Sesión de cada hilo
+     */
+    private final ThreadLocal<Session> sessions = ThreadLocal.withInitial(this::newSession);
+
+    /**
+     * Receptor de métricas propio, nulo para usar el de {@link DateExpressionMetrics#getDefault()}
+     */
+    private final IDateExpressionMetrics metrics;
+
+    /**
+     * Planes compilados por expresión, en orden de acceso. Su bloqueo protege también
+     * {@link #invalidPlans}.
+     */
+    private final LinkedHashMap<String, CachedPlan> plans = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Expresiones inválidas vistas hace menos tiempo, en orden de acceso
+     */
+    private final LinkedHashMap<String, Boolean> invalidPlans = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder planHitCount = new LongAdder();
+    private final LongAdder planMissCount = new LongAdder();
+
+    /**
+     * Constructor, el año actual se obtiene del reloj del sistema en la zona indicada
+     *
+     * @param locale    El idioma asociado
+     * @param zoneId    La zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     Para cuantos años resolvemos las expresiones
+     */
+    public DateExpressionEngine(Locale locale, ZoneId zoneId, boolean fullWeeks, int years) {
+        this(locale, Clock.system(zoneId), fullWeeks, years);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param locale    El idioma asociado
+     * @param clock     El reloj del que obtenemos el año actual y la zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     Para cuantos años resolvemos las expresiones
+     */
+    public DateExpressionEngine(Locale locale, Clock clock, boolean fullWeeks, int years) {
+        this(locale, clock, fullWeeks, years, GrammarDfaCache.getDefault());
+    }
+
+    /**
+     * Constructor con sus propias cachés DFA, por ejemplo para que las expresiones de un cliente no
+     * desplacen de la caché las del resto
+     *
+     * @param locale    El idioma asociado
+     * @param clock     El reloj del que obtenemos el año actual y la zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     Para cuantos años resolvemos las expresiones
+     * @param dfaCache  Las cachés DFA de los analizadores
+     */
+    public DateExpressionEngine(Locale locale, Clock clock, boolean fullWeeks, int years, GrammarDfaCache dfaCache) {
+        this(locale, clock, fullWeeks, years, dfaCache, null);
+    }
+
+    /**
+     * Constructor con sus propias cachés DFA y su propio receptor de métricas, por ejemplo para
+     * medir por separado el coste de las expresiones de cada cliente
+     *
+     * @param locale    El idioma asociado
+     * @param clock     El reloj del que obtenemos el año actual y la zona horaria
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param years     Para cuantos años resolvemos las expresiones
+     * @param dfaCache  Las cachés DFA de los analizadores
+     * @param metrics   El receptor de métricas, nulo para usar el de {@link DateExpressionMetrics#getDefault()}
+     */
+    public DateExpressionEngine(Locale locale, Clock clock, boolean fullWeeks, int years, GrammarDfaCache dfaCache,
+                                IDateExpressionMetrics metrics) {
+        this.locale = locale;
+        this.dfaCache = dfaCache;
+        this.metrics = metrics;
+        this.zoneId = clock.getZone();
+        this.fullWeeks = fullWeeks;
+        this.years = years;
+        this.currentYear = new CurrentYear(clock);
+
+        this.week = WeekFields.of(locale);
+
+        DateExpressionLimits.getDefault().checkYears(years);
+        // Resolvemos por adelantado los átomos de la ventana actual
+        for(DateType dateType: DateType.values()) {
+            DateResolverRegistry.getDefault().resolve(dateType, currentYear.get(), years, fullWeeks, week);
+        }
+    }
+
+    /**
+     * Resuelve una expresión a partir del año actual
+     *
+     * @param expr Texto con la expresión a resolver.
+     * @return Una expresión de fecha a partir de la gramática, nula si no es válida
+     */
+    public DateExpression parse(String expr) {
+        return parse(currentYear.get(), expr);
+    }
+
+    /**
+     * Resuelve una expresión a partir de un año concreto
+     *
+     * @param firstYear El año con el que comenzamos
+     * @param expr      Texto con la expresión a resolver.
+     * @return Una expresión de fecha a partir de la gramática, nula si no es válida
+     */
+    public DateExpression parse(int firstYear, String expr) {
+        SlowExpressionLog log = SlowExpressionLog.getDefault();
+        if(log == null) {
+            DateExpressionPlan plan = compile(expr);
+            return plan == null ? null : plan.evaluate(firstYear, years, fullWeeks, week, metrics());
+        }
+        long start = System.nanoTime();
+        DateExpressionPlan plan = compile(expr);
+        long compiled = System.nanoTime();
+        DateExpression de = plan == null ? null : plan.evaluate(firstYear, years, fullWeeks, week, metrics());
+        log.record(expr, firstYear, years, fullWeeks, compiled - start,
+                   de == null ? 0 : System.nanoTime() - compiled, de);
+        return de;
+    }
+
+    /**
+     * Explica la evaluación de una expresión a partir del año actual (EXPLAIN ANALYZE)
+     *
+     * @param expr Texto con la expresión a explicar.
+     * @return La explicación, nula si la expresión no es válida
+     * @see DateExpressionPlan#explain
+     */
+    public PlanExplanation explain(String expr) {
+        DateExpressionPlan plan = compile(expr);
+        return plan == null ? null : plan.explain(currentYear.get(), years, fullWeeks, week);
+    }
+
+    /**
+     * Compila una expresión a su plan de ejecución. Se guardan los planes de las {@link #MAX_PLANS}
+     * expresiones usadas hace menos tiempo, y las {@link #MAX_INVALID_PLANS} últimas expresiones
+     * inválidas, de forma que una expresión ya vista no se vuelve a analizar. Si desde que se
+     * compiló han cambiado los límites de {@link DateExpressionLimits}, se vuelve a compilar para
+     * comprobarlos.
+     *
+     * @param expr Texto con la expresión a compilar.
+     * @return El plan de ejecución, nulo si la expresión no es válida
+     * @throws DateExpressionLimitException Si la expresión supera los límites de {@link DateExpressionLimits}
+     */
+    public DateExpressionPlan compile(String expr) {
+        DateExpressionLimits limits = DateExpressionLimits.getDefault();
+        limits.checkLength(expr);
+        Object event = FlightRecorderEvents.beginCacheLookup();
+        CachedPlan cached;
+        boolean hit;
+        synchronized (plans) {
+            cached = plans.get(expr);
+            if(cached != null && cached.limits != limits) cached = null;
+            hit = cached != null || invalidPlans.get(expr) != null;
+        }
+        FlightRecorderEvents.endCacheLookup(event, DateExpressionMetrics.PLAN_CACHE, expr, hit);
+        IDateExpressionMetrics metrics = metrics();
+        if(hit) {
+            planHitCount.increment();
+            if(metrics != DateExpressionMetrics.NONE) metrics.onCacheHit(DateExpressionMetrics.PLAN_CACHE);
+            return cached == null ? null : cached.plan;
+        }
+        planMissCount.increment();
+        if(metrics != DateExpressionMetrics.NONE) metrics.onCacheMiss(DateExpressionMetrics.PLAN_CACHE);
+        // Compilamos fuera del bloqueo
+        return store(expr, compileInSession(expr), limits);
+    }
+
+    /**
+     * Guarda el plan de una expresión, o la expresión como inválida, y devuelve el plan guardado:
+     * si otro hilo ya ha guardado uno con los mismos límites se mantiene ese
+     */
+    private DateExpressionPlan store(String expr, DateExpressionPlan plan, DateExpressionLimits limits) {
+        synchronized (plans) {
+            if(plan != null) {
+                CachedPlan cached = plans.get(expr);
+                if(cached != null && cached.limits == limits) return cached.plan;
+                plans.put(expr, new CachedPlan(plan, limits));
+                evict(plans, MAX_PLANS);
+            } else {
+                invalidPlans.put(expr, Boolean.TRUE);
+                evict(invalidPlans, MAX_INVALID_PLANS);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Descarta los planes compilados, las siguientes llamadas vuelven a analizar las expresiones
+     */
+    public void clearPlans() {
+        synchronized (plans) {
+            plans.clear();
+            invalidPlans.clear();
+        }
+    }
+
+    /**
+     * Número de planes compilados que se guardan
+     *
+     * @return El número de expresiones, válidas o no, con su plan guardado
+     */
+    public int getPlanCount() {
+        synchronized (plans) {
+            return plans.size() + invalidPlans.size();
+        }
+    }
+
+    /**
+     * Compilaciones resueltas con un plan guardado
+     *
+     * @return El número de aciertos
+     */
+    public long getPlanHitCount() {
+        return planHitCount.sum();
+    }
+
+    /**
+     * Compilaciones que han necesitado analizar la expresión
+     *
+     * @return El número de fallos
+     */
+    public long getPlanMissCount() {
+        return planMissCount.sum();
+    }
+
+    /**
+     * Calienta el motor con el corpus incluido en la librería
+     *
+     * @return El número de expresiones válidas del corpus
+     * @see #warmUp(Collection)
+     */
+    public int warmUp() {
+        return warmUp(null);
+    }
+
+    /**
+     * Calienta el motor para que las primeras peticiones no sean más lentas que las siguientes:
+     * llena con el corpus las tablas de todas las particiones de la caché DFA del motor, analiza
+     * {@link DateExpression#WARM_UP_ROUNDS} veces el corpus, una vez por ronda con la gramática
+     * aunque lo reconozca {@link FastPathRecognizer}, guarda los planes de sus expresiones y los
+     * evalúa en la ventana actual. Los átomos de la ventana ya se resuelven al construir el motor.
+     * Los análisis y las evaluaciones del calentamiento no se notifican al receptor de métricas ni
+     * cuentan como aciertos o fallos de la caché de planes.
+     *
+     * @param corpus Las expresiones con las que calentamos, nulo para el corpus incluido
+     * @return El número de expresiones válidas del corpus
+     */
+    public int warmUp(Collection<String> corpus) {
+        if(corpus == null) corpus = DateExpression.getWarmUpCorpus();
+        int firstYear = currentYear.get();
+        DateExpressionLimits limits = DateExpressionLimits.getDefault();
+        dfaCache.warmUp(corpus);
+        int valid = 0;
+        for(int round = 0; round < DateExpression.WARM_UP_ROUNDS; round++) {
+            valid = 0;
+            for(String expr: corpus) {
+                limits.checkLength(expr);
+                DateExpressionPlan plan = compileWithGrammar(expr, DateExpressionMetrics.NONE);
+                // Se guarda el plan que compilaría compile: el de la forma habitual si se reconoce
+                DateExpressionPlan fast = FastPathRecognizer.compile(expr, DateExpressionMetrics.NONE);
+                plan = store(expr, fast != null ? fast : plan, limits);
+                if(plan != null) {
+                    plan.evaluate(firstYear, years, fullWeeks, week, DateExpressionMetrics.NONE);
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Descarta las expresiones usadas hace más tiempo hasta volver al máximo
+     */
+    private static void evict(LinkedHashMap<String, ?> map, int max) {
+        Iterator<?> it = map.values().iterator();
+        while(map.size() > max && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Compila una expresión, con el reconocedor de las formas habituales o con la sesión del hilo
+     */
+    private DateExpressionPlan compileInSession(String expr) {
+        Object event = FlightRecorderEvents.beginParse();
+        // Las formas habituales no necesitan la gramática
+        DateExpressionPlan plan = FastPathRecognizer.compile(expr, metrics());
+        if(plan == null) {
+            plan = compileWithGrammar(expr, metrics());
+        }
+        FlightRecorderEvents.endParse(event, expr, plan != null);
+        return plan;
+    }
+
+    /**
+     * Compila una expresión con la gramática, en la sesión del hilo
+     */
+    private DateExpressionPlan compileWithGrammar(String expr, IDateExpressionMetrics metrics) {
+        Session session = sessions.get();
+        if(session.inUse) {
+            // Llamada anidada desde el propio hilo (por ejemplo desde un átomo propio)
+            return newSession().compile(expr, metrics);
+        }
+        session.inUse = true;
+        try {
+            return session.compile(expr, metrics);
+        } finally {
+            session.inUse = false;
+        }
+    }
+
+    /**
+     * Crea una sesión con la configuración del motor
+     */
+    private Session newSession() {
+        return new Session(zoneId, locale, years, fullWeeks, dfaCache);
+    }
+
+    /**
+     * Idioma de trabajo
+     *
+     * @return El idioma
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Zona horaria de trabajo
+     *
+     * @return La zona horaria
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Si el computo de semanas es siempre de semana completa
+     *
+     * @return Si las semanas son completas
+     */
+    public boolean isFullWeeks() {
+        return fullWeeks;
+    }
+
+    /**
+     * Número de años que resolvemos
+     *
+     * @return El número de años
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Cachés DFA de los analizadores
+     *
+     * @return Las cachés DFA
+     */
+    public GrammarDfaCache getDfaCache() {
+        return dfaCache;
+    }
+
+    /**
+     * Receptor de métricas del motor
+     *
+     * @return El receptor propio, o el de {@link DateExpressionMetrics#getDefault()} si no tiene
+     */
+    public IDateExpressionMetrics getMetrics() {
+        return metrics();
+    }
+
+    private IDateExpressionMetrics metrics() {
+        return metrics != null ? metrics : DateExpressionMetrics.getDefault();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+/**
+ * Una expresión ha superado uno de los límites de {@link DateExpressionLimits}. Se lanza en cuanto
+ * se detecta, durante el análisis o la evaluación, sin terminar el trabajo de la expresión.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionLimitException extends IllegalArgumentException {
+    /**
+     * Límites que se pueden superar
+     */
+    public enum Limit {
+        /**
+         * Número de años que se evalúan
+         */
+        YEARS("años de la ventana"),
+        /**
+         * Número de fechas del resultado de una operación
+         */
+        DATES("fechas de una operación"),
+        /**
+         * Anidamiento de las operaciones
+         */
+        DEPTH("anidamiento"),
+        /**
+         * Cantidad de un desplazamiento ("n semanas antes de...")
+         */
+        SHIFT("desplazamiento"),
+        /**
+         * Longitud del texto de la expresión
+         */
+        LENGTH("longitud de la expresión"),
+        /**
+         * Número que no cabe en un entero
+         */
+        NUMBER("número");
+
+        private final String description;
+
+        Limit(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Descripción del límite
+         *
+         * @return La descripción
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Limit limit;
+    private final long maximum;
+    private final long value;
+
+    /**
+     * Constructor
+     *
+     * @param limit   El límite superado
+     * @param maximum El valor máximo permitido
+     * @param value   El valor alcanzado
+     */
+    public DateExpressionLimitException(Limit limit, long maximum, long value) {
+        super("Se ha superado el límite de " + limit.description + ": " + value + ", máximo " + maximum);
+        this.limit = limit;
+        this.maximum = maximum;
+        this.value = value;
+    }
+
+    /**
+     * Límite superado
+     *
+     * @return El límite
+     */
+    public Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Valor máximo permitido
+     *
+     * @return El máximo
+     */
+    public long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Valor alcanzado, {@link Long#MAX_VALUE} si ni siquiera cabe en un entero largo
+     *
+     * @return El valor
+     */
+    public long getValue() {
+        return value;
+    }
+}
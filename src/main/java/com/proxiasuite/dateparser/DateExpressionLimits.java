@@ -0,0 +1,187 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.DateExpressionLimitException.Limit;
+
+/**
+ * Límites de recursos para expresiones que escriben los usuarios, de forma que una única regla
+ * mal escrita o malintencionada no pueda consumir segundos de CPU o toda la memoria de un nodo
+ * compartido: el número de años de la ventana, las fechas que produce cada operación, el
+ * anidamiento de las operaciones ("lunes después del lunes después del..."), la cantidad de los
+ * desplazamientos ("99999 semanas antes de...") y la longitud del texto.
+ *
+ * Los límites se comprueban según se avanza, al analizar la expresión (longitud, anidamiento y
+ * desplazamientos) y al evaluarla (años y fechas de cada operación, también en los planes
+ * especializados), y al superarlos se lanza una {@link DateExpressionLimitException}. La ventana
+ * que se comprueba es la que se pide: {@link DateHorizon} y {@link DateExpressionCache} evalúan
+ * además un margen a cada lado para las costuras, tantos años como alcance la expresión
+ * ({@link com.proxiasuite.dateparser.parser.DateExpressionPlan#getReachYears()}), que no cuenta
+ * para el límite de años y queda acotado por el de los desplazamientos.
+ *
+ * Se registran globalmente con {@link #setDefault(DateExpressionLimits)}. Inicialmente son
+ * {@link #UNLIMITED}, y sin límite cada comprobación es una comparación con el máximo.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class DateExpressionLimits {
+    /**
+     * Sin límites
+     */
+    public static final DateExpressionLimits UNLIMITED = new DateExpressionLimits(Integer.MAX_VALUE,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Límites razonables para expresiones de usuarios: 100 años, 100000 fechas por operación (cien
+     * años completos son unas 36500), 32 operaciones anidadas, desplazamientos de hasta 1000
+     * unidades y 1000 caracteres
+     */
+    public static final DateExpressionLimits UNTRUSTED = new DateExpressionLimits(100, 100000, 32, 1000, 1000);
+
+    private static volatile DateExpressionLimits defaultLimits = UNLIMITED;
+
+    private final int maxYears;
+    private final int maxDates;
+    private final int maxDepth;
+    private final int maxShift;
+    private final int maxLength;
+
+    /**
+     * Constructor, {@link Integer#MAX_VALUE} deja sin límite
+     *
+     * @param maxYears  Número máximo de años de la ventana que se pide, sin margen
+     * @param maxDates  Número máximo de fechas del resultado de cada operación
+     * @param maxDepth  Número máximo de operaciones anidadas
+     * @param maxShift  Cantidad máxima de un desplazamiento
+     * @param maxLength Número máximo de caracteres de la expresión
+     */
+    public DateExpressionLimits(int maxYears, int maxDates, int maxDepth, int maxShift, int maxLength) {
+        if(maxYears <= 0 || maxDates <= 0 || maxDepth <= 0 || maxShift <= 0 || maxLength <= 0) {
+            throw new IllegalArgumentException("Los límites deben ser positivos");
+        }
+        this.maxYears = maxYears;
+        this.maxDates = maxDates;
+        this.maxDepth = maxDepth;
+        this.maxShift = maxShift;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Límites por defecto
+     *
+     * @return Los límites, {@link #UNLIMITED} si no hay ninguno registrado
+     */
+    public static DateExpressionLimits getDefault() {
+        return defaultLimits;
+    }
+
+    /**
+     * Registra los límites por defecto
+     *
+     * @param limits Los límites, nulo para no limitar nada
+     */
+    public static void setDefault(DateExpressionLimits limits) {
+        defaultLimits = limits == null ? UNLIMITED : limits;
+    }
+
+    /**
+     * Comprueba el número de años de la ventana que se pide, sin margen
+     *
+     * @param years El número de años
+     * @throws DateExpressionLimitException Si supera el máximo
+     */
+    public void checkYears(int years) {
+        if(years > maxYears) throw new DateExpressionLimitException(Limit.YEARS, maxYears, years);
+    }
+
+    /**
+     * Comprueba el número de fechas del resultado de una operación
+     *
+     * @param de El resultado
+     * @return El mismo resultado
+     * @throws DateExpressionLimitException Si supera el máximo
+     */
+    public DateExpression checkDates(DateExpression de) {
+        if(maxDates != Integer.MAX_VALUE) {
+            int dates = de.getDateCount();
+            if(dates > maxDates) throw new DateExpressionLimitException(Limit.DATES, maxDates, dates);
+        }
+        return de;
+    }
+
+    /**
+     * Comprueba la longitud de una expresión
+     *
+     * @param expr El texto de la expresión
+     * @throws DateExpressionLimitException Si supera el máximo
+     */
+    public void checkLength(String expr) {
+        if(expr.length() > maxLength) throw new DateExpressionLimitException(Limit.LENGTH, maxLength, expr.length());
+    }
+
+    /**
+     * Número máximo de años de la ventana que se pide, sin margen
+     *
+     * @return El máximo
+     */
+    public int getMaxYears() {
+        return maxYears;
+    }
+
+    /**
+     * Número máximo de fechas del resultado de cada operación
+     *
+     * @return El máximo
+     */
+    public int getMaxDates() {
+        return maxDates;
+    }
+
+    /**
+     * Número máximo de operaciones anidadas
+     *
+     * @return El máximo
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Cantidad máxima de un desplazamiento
+     *
+     * @return El máximo
+     */
+    public int getMaxShift() {
+        return maxShift;
+    }
+
+    /**
+     * Número máximo de caracteres de la expresión
+     *
+     * @return El máximo
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
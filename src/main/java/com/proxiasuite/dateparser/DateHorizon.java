@@ -0,0 +1,231 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Resultado de una expresión de fecha sobre un horizonte de años que se puede desplazar: ampliar hacia
+ * delante o hacia atrás, o avanzar descartando los años más antiguos, evaluando sólo los años nuevos y
+ * reutilizando las listas anuales de los que ya estaban resueltos. La expresión se compila una única
+ * vez y los años nuevos se obtienen evaluando su plan de ejecución.
+ *
+ * Cada tramo de años se evalúa con margen a cada lado y se recorta a los años pedidos. El margen es
+ * el alcance del plan ({@link DateExpressionPlan#getReachYears()}): un año para los operadores que
+ * cruzan el cambio de año (un periodo de diciembre a enero, o "un mes antes del quince de enero"), y
+ * más para los desplazamientos largos como "13 meses después del quince de enero". Así tienen el
+ * contexto que necesitan en las costuras, y cada año contiene exactamente las fechas que le
+ * corresponden, con independencia de en qué tramo se evaluó. Por eso, en los años
+ * extremos, el resultado puede diferir del de {@link DateExpression#parse}, que no evalúa fuera de la
+ * ventana pedida y conserva las fechas que se salen de ella.
+ *
+ * Los objetos son inmutables, cada operación devuelve un nuevo horizonte.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateHorizon {
+    /**
+     * Idioma de trabajo
+     */
+    private final Locale locale;
+
+    /**
+     * Si soportamos semanas completas o parciales
+     */
+    private final boolean fullWeeks;
+
+    /**
+     * Texto de la expresión
+     */
+    private final String expression;
+
+    /**
+     * Plan de ejecución de la expresión, compilado una única vez
+     */
+    private final DateExpressionPlan plan;
+
+    /**
+     * Primer año del horizonte
+     */
+    private final int firstYear;
+
+    /**
+     * Número de años del horizonte
+     */
+    private final int years;
+
+    /**
+     * Si la expresión es aproximada
+     */
+    private final boolean approximate;
+
+    /**
+     * Fechas de los años del horizonte, sólo los años con alguna fecha
+     */
+    private final NavigableMap<Integer, List<LocalDate>> dates;
+
+    private DateHorizon(Locale locale, boolean fullWeeks, String expression, DateExpressionPlan plan,
+                        int firstYear, int years, boolean approximate,
+                        NavigableMap<Integer, List<LocalDate>> dates) {
+        this.locale = locale;
+        this.fullWeeks = fullWeeks;
+        this.expression = expression;
+        this.plan = plan;
+        this.firstYear = firstYear;
+        this.years = years;
+        this.approximate = approximate;
+        this.dates = dates;
+    }
+
+    /**
+     * Evalúa una expresión sobre un horizonte de años
+     *
+     * @param locale    El idioma asociado
+     * @param zoneId    La zona horaria, como en {@link DateExpression#parse}; las fechas no dependen de ella
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param firstYear El primer año del horizonte
+     * @param years     El número de años del horizonte
+     * @param expr      Texto con la expresión a resolver.
+     *
+     * @return El horizonte resuelto, nulo si la expresión no es válida
+     */
+    public static DateHorizon parse(Locale locale, ZoneId zoneId, boolean fullWeeks, int firstYear, int years,
+                                    String expr) {
+        DateExpressionPlan plan = DateExpression.compile(expr);
+        if(plan == null) return null;
+        DateExpression de = evaluate(plan, fullWeeks, WeekFields.of(locale), firstYear, years);
+        return new DateHorizon(locale, fullWeeks, expr, plan, firstYear, years, de.isApproximate(),
+                               clip(de.dates, firstYear, years));
+    }
+
+    /**
+     * Amplía el horizonte hacia delante, evaluando sólo los años nuevos
+     *
+     * @param k Número de años que añadimos
+     * @return El nuevo horizonte
+     */
+    public DateHorizon extendForward(int k) {
+        if(k <= 0) return this;
+        NavigableMap<Integer, List<LocalDate>> extended = new TreeMap<>(dates);
+        extended.putAll(evaluateYears(firstYear + years, k));
+        return new DateHorizon(locale, fullWeeks, expression, plan, firstYear, years + k, approximate, extended);
+    }
+
+    /**
+     * Amplía el horizonte hacia atrás, evaluando sólo los años nuevos
+     *
+     * @param k Número de años que añadimos
+     * @return El nuevo horizonte
+     */
+    public DateHorizon extendBackward(int k) {
+        if(k <= 0) return this;
+        NavigableMap<Integer, List<LocalDate>> extended = new TreeMap<>(dates);
+        extended.putAll(evaluateYears(firstYear - k, k));
+        return new DateHorizon(locale, fullWeeks, expression, plan, firstYear - k, years + k, approximate, extended);
+    }
+
+    /**
+     * Avanza el horizonte: descarta los k años más antiguos y añade k años al final, manteniendo
+     * el número de años.
+     *
+     * @param k Número de años que avanzamos
+     * @return El nuevo horizonte
+     */
+    public DateHorizon roll(int k) {
+        if(k <= 0) return this;
+        NavigableMap<Integer, List<LocalDate>> rolled = new TreeMap<>(dates.tailMap(firstYear + k, true));
+        int from = Math.max(firstYear + years, firstYear + k);
+        rolled.putAll(evaluateYears(from, firstYear + k + years - from));
+        return new DateHorizon(locale, fullWeeks, expression, plan, firstYear + k, years, approximate, rolled);
+    }
+
+    /**
+     * Obtiene la expresión de fecha con todas las fechas del horizonte
+     *
+     * @return Una nueva expresión de fecha
+     */
+    public DateExpression getDateExpression() {
+        DateExpression de = new DateExpression(WeekFields.of(locale), fullWeeks, dates);
+        de.setApproximate(approximate);
+        return de;
+    }
+
+    /**
+     * Primer año del horizonte
+     *
+     * @return El primer año
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Número de años del horizonte
+     *
+     * @return El número de años
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Texto de la expresión
+     *
+     * @return La expresión
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Evalúa la expresión para un tramo de años nuevo
+     */
+    private NavigableMap<Integer, List<LocalDate>> evaluateYears(int from, int count) {
+        return clip(evaluate(plan, fullWeeks, WeekFields.of(locale), from, count).dates, from, count);
+    }
+
+    /**
+     * Evalúa un plan para un tramo de años con el margen necesario para las costuras, sin recortar.
+     *
+     * @return La expresión evaluada
+     */
+    static DateExpression evaluate(DateExpressionPlan plan, boolean fullWeeks, WeekFields week, int from, int count) {
+        return plan.evaluateWithMargin(from, count, plan.getReachYears(), fullWeeks, week);
+    }
+
+    /**
+     * Recorta unas fechas a un tramo de años, compartiendo las listas anuales
+     */
+    static NavigableMap<Integer, List<LocalDate>> clip(NavigableMap<Integer, List<LocalDate>> dates, int from, int count) {
+        return new TreeMap<>(dates.subMap(from, true, from + count - 1, true));
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.calendar;
+
+import com.proxiasuite.dateparser.DateExpression;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Agenda que combina las ocurrencias de muchas reglas (expresiones de fecha ya resueltas) en un único
+ * flujo ordenado por fecha.
+ *
+ * La combinación es perezosa: cada regla aporta un cursor sobre sus listas anuales, que ya están ordenadas,
+ * y una cola de prioridad mantiene el cursor con la fecha más próxima en cabeza. Obtener las N siguientes
+ * ocurrencias cuesta del orden de N·log(reglas), independientemente de la longitud del horizonte. Las
+ * ocurrencias de una misma fecha se devuelven en el orden en que se registraron las reglas.
+ *
+ * @param <K> El tipo de la clave con la que se identifican las reglas
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class Agenda<K> {
+    /**
+     * Las claves de las reglas, en orden de registro
+     */
+    private final List<K> rules;
+
+    /**
+     * Las expresiones de cada regla, en la misma posición que su clave
+     */
+    private final List<DateExpression> expressions;
+
+    /**
+     * Constructor, recibe las reglas de la agenda.
+     *
+     * @param rules Expresiones de fecha indexadas por la clave de la regla, si el mapa mantiene
+     *              un orden se utiliza para desempatar las ocurrencias de una misma fecha.
+     */
+    public Agenda(Map<K, DateExpression> rules) {
+        this.rules = new ArrayList<>(rules.size());
+        this.expressions = new ArrayList<>(rules.size());
+        for(Map.Entry<K, DateExpression> e: rules.entrySet()) {
+            if(e.getValue() == null) continue;
+            this.rules.add(e.getKey());
+            this.expressions.add(e.getValue());
+        }
+    }
+
+    /**
+     * Recorre las ocurrencias de todas las reglas en orden de fecha a partir de una fecha dada,
+     * calculando cada una sólo cuando se pide.
+     *
+     * @param from  La fecha a partir de la que se recorre, incluida
+     * @return Un iterador sobre las ocurrencias
+     */
+    public Iterator<AgendaEntry<K>> iterator(LocalDate from) {
+        List<Cursor> cursors = new ArrayList<>(expressions.size());
+        for(int i = 0; i < expressions.size(); i++) {
+            Cursor cursor = new Cursor(i, expressions.get(i), from);
+            if(cursor.current != null) cursors.add(cursor);
+        }
+        // La cola de prioridad construida a partir de una colección se monta en tiempo lineal.
+        final PriorityQueue<Cursor> queue = new PriorityQueue<>(cursors);
+
+        return new Iterator<AgendaEntry<K>>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public AgendaEntry<K> next() {
+                Cursor head = queue.poll();
+                if(head == null) throw new NoSuchElementException();
+                AgendaEntry<K> entry = new AgendaEntry<>(rules.get(head.rule), head.current);
+                if(head.advance()) queue.add(head);
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Obtiene las siguientes ocurrencias de todas las reglas a partir de una fecha.
+     *
+     * @param from  La fecha a partir de la que se buscan, incluida
+     * @param count El número máximo de ocurrencias
+     * @return Las ocurrencias ordenadas por fecha, como mucho count
+     */
+    public List<AgendaEntry<K>> next(LocalDate from, int count) {
+        List<AgendaEntry<K>> entries = new ArrayList<>(Math.max(0, Math.min(count, 1024)));
+        Iterator<AgendaEntry<K>> it = iterator(from);
+        while(entries.size() < count && it.hasNext()) {
+            entries.add(it.next());
+        }
+        return entries;
+    }
+
+    /**
+     * Cursor sobre las fechas de una regla, avanza año a año sobre las listas ordenadas de la expresión.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        /**
+         * Posición de la regla, para desempatar
+         */
+        final int rule;
+
+        /**
+         * La expresión de la regla
+         */
+        final DateExpression expression;
+
+        /**
+         * Los años pendientes de recorrer
+         */
+        final Iterator<Integer> years;
+
+        /**
+         * Las fechas del año en curso
+         */
+        List<LocalDate> dates;
+
+        /**
+         * La posición en las fechas del año en curso
+         */
+        int index;
+
+        /**
+         * La fecha actual del cursor, nula si se ha agotado
+         */
+        LocalDate current;
+
+        Cursor(int rule, DateExpression expression, LocalDate from) {
+            this.rule = rule;
+            this.expression = expression;
+            this.years = expression.getYears().tailSet(from.getYear(), true).iterator();
+            if(nextYear()) {
+                // Sólo en el primer año buscamos la posición de partida.
+                if(dates.get(0).getYear() == from.getYear()) {
+                    int pos = Collections.binarySearch(dates, from);
+                    index = pos >= 0 ? pos : -pos - 1;
+                }
+                if(index < dates.size()) {
+                    current = dates.get(index);
+                } else {
+                    advanceYear();
+                }
+            }
+        }
+
+        /**
+         * Avanza a la siguiente fecha
+         *
+         * @return Si queda alguna fecha
+         */
+        boolean advance() {
+            if(++index < dates.size()) {
+                current = dates.get(index);
+                return true;
+            }
+            return advanceYear();
+        }
+
+        private boolean advanceYear() {
+            if(nextYear()) {
+                current = dates.get(0);
+                return true;
+            }
+            current = null;
+            return false;
+        }
+
+        private boolean nextYear() {
+            if(!years.hasNext()) return false;
+            dates = expression.getDates(years.next());
+            index = 0;
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            int c = current.compareTo(o.current);
+            return c != 0 ? c : Integer.compare(rule, o.rule);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.calendar;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Una entrada de la agenda: la fecha de una ocurrencia y la regla que la ha generado.
+ *
+ * @param <K> El tipo de la clave con la que se identifican las reglas
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class AgendaEntry<K> {
+    /**
+     * La regla que genera la ocurrencia
+     */
+    private final K rule;
+
+    /**
+     * La fecha de la ocurrencia
+     */
+    private final LocalDate date;
+
+    AgendaEntry(K rule, LocalDate date) {
+        this.rule = rule;
+        this.date = date;
+    }
+
+    /**
+     * Obtiene la clave de la regla que genera la ocurrencia
+     *
+     * @return La clave de la regla
+     */
+    public K getRule() {
+        return rule;
+    }
+
+    /**
+     * Obtiene la fecha de la ocurrencia
+     *
+     * @return La fecha
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AgendaEntry)) return false;
+        AgendaEntry<?> that = (AgendaEntry<?>) o;
+        return Objects.equals(rule, that.rule) && date.equals(that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rule, date);
+    }
+
+    @Override
+    public String toString() {
+        return date + " " + rule;
+    }
+}
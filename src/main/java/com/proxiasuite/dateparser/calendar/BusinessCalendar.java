@@ -0,0 +1,274 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.calendar;
+
+import com.proxiasuite.dateparser.DateExpression;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Calendario laboral construido a partir de una o varias expresiones de fecha que definen los festivos,
+ * más los días de la semana que se consideran no laborables (por defecto sábado y domingo).
+ *
+ * Al construirlo se precalcula, para todos los días de los años cubiertos, el número acumulado de días
+ * laborables. Los años se encadenan en un único array, de modo que el cambio de año no es más que otra
+ * posición, y las operaciones de aritmética laboral se resuelven en O(1) (conteo) o en O(log n)
+ * (búsqueda binaria sobre el acumulado) sin generar estructuras intermedias.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class BusinessCalendar {
+    /**
+     * Primer día cubierto por el calendario
+     */
+    private final LocalDate firstDate;
+
+    /**
+     * Último día cubierto por el calendario
+     */
+    private final LocalDate lastDate;
+
+    /**
+     * El primer día como día de época, para calcular posiciones en el array
+     */
+    private final long firstEpochDay;
+
+    /**
+     * Acumulado de días laborables: la posición i contiene el número de días laborables
+     * en el intervalo [firstDate, firstDate + i), con lo que la posición 0 es siempre 0.
+     */
+    private final int[] workingDays;
+
+    /**
+     * Constructor, el calendario cubre los años de las expresiones de festivos recibidas y
+     * considera no laborables los sábados y domingos.
+     *
+     * @param holidays  Expresiones de fecha con los festivos
+     */
+    public BusinessCalendar(DateExpression ... holidays) {
+        this(firstYear(holidays), lastYear(holidays) - firstYear(holidays) + 1, holidays);
+    }
+
+    /**
+     * Constructor, considera no laborables los sábados y domingos.
+     *
+     * @param firstYear El primer año cubierto por el calendario
+     * @param years     El número de años cubiertos
+     * @param holidays  Expresiones de fecha con los festivos
+     */
+    public BusinessCalendar(int firstYear, int years, DateExpression ... holidays) {
+        this(firstYear, years, EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), holidays);
+    }
+
+    /**
+     * Constructor completo
+     *
+     * @param firstYear El primer año cubierto por el calendario
+     * @param years     El número de años cubiertos
+     * @param weekend   Los días de la semana que no son laborables
+     * @param holidays  Expresiones de fecha con los festivos, las fechas fuera de los años cubiertos se ignoran
+     */
+    public BusinessCalendar(int firstYear, int years, Set<DayOfWeek> weekend, DateExpression ... holidays) {
+        if(years <= 0) {
+            throw new IllegalArgumentException("El calendario laboral tiene que cubrir al menos un año");
+        }
+        this.firstDate = LocalDate.of(firstYear, 1, 1);
+        this.lastDate = LocalDate.of(firstYear + years - 1, 12, 31);
+        this.firstEpochDay = firstDate.toEpochDay();
+
+        int length = (int) (lastDate.toEpochDay() - firstEpochDay + 1);
+
+        // Marcamos primero los festivos, año a año, sobre las listas ordenadas de cada expresión.
+        boolean [] holiday = new boolean[length];
+        if(holidays != null) {
+            for (DateExpression expr : holidays) {
+                if (expr == null) continue;
+                for (int year : expr.getYears().subSet(firstYear, true, firstYear + years - 1, true)) {
+                    for (LocalDate ld : expr.getDates(year)) {
+                        holiday[(int) (ld.toEpochDay() - firstEpochDay)] = true;
+                    }
+                }
+            }
+        }
+
+        // Y luego acumulamos los laborables, el día de la semana se calcula de forma incremental.
+        boolean [] weekendDays = new boolean[8];
+        for(DayOfWeek dw: weekend) {
+            weekendDays[dw.getValue()] = true;
+        }
+        this.workingDays = new int[length + 1];
+        int dayOfWeek = firstDate.getDayOfWeek().getValue();
+        for(int i = 0; i < length; i++) {
+            boolean working = !holiday[i] && !weekendDays[dayOfWeek];
+            workingDays[i + 1] = workingDays[i] + (working ? 1 : 0);
+            dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+        }
+    }
+
+    /**
+     * Indica si una fecha es laborable
+     *
+     * @param date  La fecha a consultar
+     * @return Si la fecha es laborable
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        int index = indexOf(date, false);
+        return workingDays[index + 1] != workingDays[index];
+    }
+
+    /**
+     * Cuenta los días laborables en el intervalo [from, to), si to es anterior a from el resultado
+     * es negativo.
+     *
+     * @param from  La fecha de inicio, incluida
+     * @param to    La fecha final, excluida
+     * @return El número de días laborables entre ambas fechas
+     */
+    public int businessDaysBetween(LocalDate from, LocalDate to) {
+        return workingDays[indexOf(to, true)] - workingDays[indexOf(from, true)];
+    }
+
+    /**
+     * Suma (o resta si es negativo) un número de días laborables a una fecha. La fecha de partida no cuenta,
+     * por lo que sumar 1 día nos lleva al siguiente laborable, sea o no laborable la fecha de partida.
+     *
+     * @param date  La fecha de partida
+     * @param days  Los días laborables a desplazarnos
+     * @return La fecha laborable resultante
+     */
+    public LocalDate addBusinessDays(LocalDate date, int days) {
+        int index = indexOf(date, false);
+        if(days == 0) return date;
+
+        // Calculamos el ordinal (desde 0) del laborable que buscamos dentro del calendario.
+        long rank = days > 0 ? (long) workingDays[index + 1] + days - 1 : (long) workingDays[index] + days;
+        if(rank < 0 || rank >= workingDays[workingDays.length - 1]) {
+            throw new DateTimeException("El resultado queda fuera del calendario laboral [" + firstDate + ", " + lastDate + "]");
+        }
+        return firstDate.plusDays(firstIndexReaching((int) rank + 1) - 1);
+    }
+
+    /**
+     * Obtiene el siguiente día laborable posterior a la fecha indicada.
+     *
+     * @param date  La fecha de partida
+     * @return El primer día laborable posterior
+     */
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return addBusinessDays(date, 1);
+    }
+
+    /**
+     * Obtiene el último día laborable anterior a la fecha indicada.
+     *
+     * @param date  La fecha de partida
+     * @return El último día laborable anterior
+     */
+    public LocalDate previousBusinessDay(LocalDate date) {
+        return addBusinessDays(date, -1);
+    }
+
+    /**
+     * Primer día cubierto por el calendario
+     *
+     * @return El uno de enero del primer año
+     */
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * Último día cubierto por el calendario
+     *
+     * @return El treinta y uno de diciembre del último año
+     */
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /**
+     * Búsqueda binaria sobre el acumulado, devuelve la primera posición cuyo acumulado alcanza el valor
+     *
+     * @param value El valor acumulado que buscamos
+     * @return La posición en el array de acumulados
+     */
+    private int firstIndexReaching(int value) {
+        int low = 0;
+        int high = workingDays.length - 1;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(workingDays[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Posición de una fecha en el calendario, validando que esté cubierta
+     *
+     * @param date      La fecha
+     * @param boundary  Si admitimos el día siguiente al último, como extremo abierto de un intervalo
+     * @return La posición de la fecha
+     */
+    private int indexOf(LocalDate date, boolean boundary) {
+        long index = date.toEpochDay() - firstEpochDay;
+        if(index < 0 || index >= workingDays.length - (boundary ? 0 : 1)) {
+            throw new DateTimeException("La fecha " + date + " queda fuera del calendario laboral [" + firstDate + ", " + lastDate + "]");
+        }
+        return (int) index;
+    }
+
+    private static int firstYear(DateExpression ... holidays) {
+        return yearBound(true, holidays);
+    }
+
+    private static int lastYear(DateExpression ... holidays) {
+        return yearBound(false, holidays);
+    }
+
+    /**
+     * Obtiene el primer o último año de un conjunto de expresiones de fecha
+     */
+    private static int yearBound(boolean first, DateExpression ... holidays) {
+        Integer bound = null;
+        if(holidays != null) {
+            for (DateExpression expr : holidays) {
+                if (expr == null || expr.getYears().isEmpty()) continue;
+                int year = first ? expr.getYears().first() : expr.getYears().last();
+                if (bound == null || (first ? year < bound : year > bound)) bound = year;
+            }
+        }
+        if(bound == null) {
+            throw new IllegalArgumentException("No se puede deducir el periodo del calendario laboral sin festivos");
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpressionCache;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publica por JMX el estado de un motor, de una caché de resultados y de las cachés DFA de sus
+ * analizadores, con operaciones para vaciarlas sin reiniciar la aplicación. El registro es
+ * opcional: la librería no registra nada por sí misma.
+ *
+ * Las latencias, las expresiones lentas y las inválidas proceden de un
+ * {@link DateExpressionStatistics}, que debe ser el receptor de métricas del motor (en su
+ * constructor) o el de toda la librería ({@link DateExpressionMetrics#setDefault}). Sólo mide
+ * cada evaluación completa, así que los planes se siguen especializando:
+ * <pre>
+ * DateExpressionStatistics statistics = new DateExpressionStatistics();
+ * DateExpressionEngine engine = new DateExpressionEngine(locale, clock, true, 2, GrammarDfaCache.getDefault(), statistics);
+ * DateExpressionManagement management = new DateExpressionManagement(engine, cache, statistics);
+ * management.register();
+ * </pre>
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionManagement implements IDateExpressionMXBean {
+    /**
+     * Nombre con el que se registra por defecto
+     */
+    public static final String DEFAULT_NAME = "com.proxiasuite.dateparser:type=DateExpression";
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Motor gestionado, nulo si no hay ninguno
+     */
+    private final DateExpressionEngine engine;
+
+    /**
+     * Caché de resultados gestionada, nula si no hay ninguna
+     */
+    private final DateExpressionCache cache;
+
+    /**
+     * Cachés DFA, las del motor o las de toda la librería
+     */
+    private final GrammarDfaCache dfaCache;
+
+    private final DateExpressionStatistics statistics;
+
+    /**
+     * Nombre con el que está registrado, nulo si no lo está
+     */
+    private ObjectName name;
+
+    /**
+     * Constructor
+     *
+     * @param engine     El motor, nulo si no se gestiona ninguno
+     * @param cache      La caché de resultados, nula si no se gestiona ninguna
+     * @param statistics Las estadísticas de análisis y evaluación
+     */
+    public DateExpressionManagement(DateExpressionEngine engine, DateExpressionCache cache,
+                                    DateExpressionStatistics statistics) {
+        if(statistics == null) {
+            throw new IllegalArgumentException("Las estadísticas son obligatorias");
+        }
+        this.engine = engine;
+        this.cache = cache;
+        this.dfaCache = engine != null ? engine.getDfaCache() : GrammarDfaCache.getDefault();
+        this.statistics = statistics;
+    }
+
+    /**
+     * Registra el MXBean en el servidor de la plataforma con {@link #DEFAULT_NAME}
+     *
+     * @return El nombre con el que se ha registrado
+     */
+    public ObjectName register() {
+        return register(DEFAULT_NAME);
+    }
+
+    /**
+     * Registra el MXBean en el servidor de la plataforma, por ejemplo con un nombre por motor
+     *
+     * @param name El nombre JMX
+     * @return El nombre con el que se ha registrado
+     * @throws IllegalStateException Si el nombre no es válido o ya está registrado
+     */
+    public synchronized ObjectName register(String name) {
+        if(this.name != null) {
+            throw new IllegalStateException("Ya está registrado como " + this.name);
+        }
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+            return objectName;
+        } catch (JMException ex) {
+            throw new IllegalStateException("No se puede registrar " + name, ex);
+        }
+    }
+
+    /**
+     * Elimina el registro del servidor de la plataforma, si está registrado
+     */
+    public synchronized void unregister() {
+        if(name == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if(server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException ex) {
+            throw new IllegalStateException("No se puede eliminar el registro de " + name, ex);
+        }
+        name = null;
+    }
+
+    /**
+     * Nombre con el que está registrado
+     *
+     * @return El nombre, nulo si no está registrado
+     */
+    public synchronized ObjectName getName() {
+        return name;
+    }
+
+    /**
+     * Estadísticas de análisis y evaluación
+     *
+     * @return Las estadísticas
+     */
+    public DateExpressionStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public int getPlanCacheSize() {
+        return engine == null ? 0 : engine.getPlanCount();
+    }
+
+    @Override
+    public double getPlanCacheHitRatio() {
+        return engine == null ? 0 : ratio(engine.getPlanHitCount(), engine.getPlanMissCount());
+    }
+
+    @Override
+    public int getResultCacheSize() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    @Override
+    public long getResultCacheWeight() {
+        return cache == null ? 0 : cache.getWeight();
+    }
+
+    @Override
+    public double getResultCacheHitRatio() {
+        return cache == null ? 0 : ratio(cache.getHitCount(), cache.getMissCount());
+    }
+
+    @Override
+    public long getResultCacheEvictionCount() {
+        return cache == null ? 0 : cache.getEvictionCount();
+    }
+
+    @Override
+    public int getDfaStateCount() {
+        return dfaCache.size();
+    }
+
+    @Override
+    public long getDfaClearCount() {
+        return dfaCache.getClearCount();
+    }
+
+    @Override
+    public long getParseCount() {
+        return statistics.getParseCount();
+    }
+
+    @Override
+    public double getAverageParseMillis() {
+        return average(statistics.getParseNanos(), statistics.getParseCount());
+    }
+
+    @Override
+    public double getMaxParseMillis() {
+        return statistics.getMaxParseNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getEvaluateCount() {
+        return statistics.getEvaluateCount();
+    }
+
+    @Override
+    public double getAverageEvaluateMillis() {
+        return average(statistics.getEvaluateNanos(), statistics.getEvaluateCount());
+    }
+
+    @Override
+    public double getMaxEvaluateMillis() {
+        return statistics.getMaxEvaluateNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getSlowExpressionCount() {
+        return statistics.getSlowCount();
+    }
+
+    @Override
+    public long getFailedExpressionCount() {
+        return statistics.getFailedCount();
+    }
+
+    @Override
+    public void clearPlanCache() {
+        if(engine != null) engine.clearPlans();
+    }
+
+    @Override
+    public void clearResultCache() {
+        if(cache != null) cache.invalidateAll();
+    }
+
+    @Override
+    public void clearDfaCache() {
+        dfaCache.clear();
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.reset();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static double average(long nanos, long count) {
+        return count == 0 ? 0 : nanos / NANOS_PER_MILLI / count;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+/**
+ * Receptor de métricas por defecto de la librería. Inicialmente es {@link #NONE}, que no mide
+ * nada: quien notifica métricas comprueba antes si el receptor es {@link #NONE}, de forma que sin
+ * receptor no se llega a consultar el reloj.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class DateExpressionMetrics {
+    /**
+     * Receptor que no hace nada
+     */
+    public static final IDateExpressionMetrics NONE = new IDateExpressionMetrics() {
+    };
+
+    /**
+     * Caché de planes compilados de {@link com.proxiasuite.dateparser.DateExpressionEngine}
+     */
+    public static final String PLAN_CACHE = "plans";
+
+    /**
+     * Caché de resultados de {@link com.proxiasuite.dateparser.DateExpressionCache}
+     */
+    public static final String RESULT_CACHE = "results";
+
+    private static volatile IDateExpressionMetrics defaultMetrics = NONE;
+
+    private DateExpressionMetrics() {
+    }
+
+    /**
+     * Receptor por defecto
+     *
+     * @return El receptor, {@link #NONE} si no hay ninguno registrado
+     */
+    public static IDateExpressionMetrics getDefault() {
+        return defaultMetrics;
+    }
+
+    /**
+     * Registra el receptor por defecto
+     *
+     * @param metrics El receptor, nulo para no medir nada
+     */
+    public static void setDefault(IDateExpressionMetrics metrics) {
+        defaultMetrics = metrics == null ? NONE : metrics;
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Receptor de métricas que acumula las estadísticas de análisis y evaluación que publica
+ * {@link DateExpressionManagement}: número, tiempo total y tiempo máximo de los análisis y de las
+ * evaluaciones, expresiones inválidas y expresiones lentas, las que superan el umbral al
+ * analizarse o al evaluarse.
+ *
+ * El tiempo de análisis de una expresión es el de su reconocimiento como forma habitual o, si pasa
+ * por la gramática, la suma de los análisis léxico y sintáctico. No pide el tiempo de cada
+ * operación, por lo que los planes se siguen especializando y sólo se mide cada evaluación
+ * completa. Los contadores admiten actualizaciones concurrentes sin bloqueos.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionStatistics implements IDateExpressionMetrics {
+    /**
+     * Umbral por defecto de las expresiones lentas, en milisegundos
+     */
+    public static final long DEFAULT_SLOW_MILLIS = 100;
+
+    /**
+     * Umbral de las expresiones lentas
+     */
+    private final long slowNanos;
+
+    /**
+     * Tiempo del análisis léxico de la expresión que se está analizando en cada hilo
+     */
+    private final ThreadLocal<long[]> lexNanos = ThreadLocal.withInitial(()->new long[1]);
+
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAccumulator maxParseNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder evaluateCount = new LongAdder();
+    private final LongAdder evaluateNanos = new LongAdder();
+    private final LongAccumulator maxEvaluateNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+
+    /**
+     * Constructor con el umbral por defecto, {@link #DEFAULT_SLOW_MILLIS}
+     */
+    public DateExpressionStatistics() {
+        this(DEFAULT_SLOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param slowThreshold Tiempo de análisis o de evaluación a partir del cual una expresión es lenta
+     * @param unit          La unidad del umbral
+     */
+    public DateExpressionStatistics(long slowThreshold, TimeUnit unit) {
+        if(slowThreshold < 0) {
+            throw new IllegalArgumentException("El umbral no puede ser negativo: " + slowThreshold);
+        }
+        this.slowNanos = unit.toNanos(slowThreshold);
+    }
+
+    @Override
+    public void onFastPath(String expression, long nanos) {
+        parsed(nanos);
+    }
+
+    @Override
+    public void onLex(String expression, int tokens, long nanos) {
+        lexNanos.get()[0] = nanos;
+    }
+
+    @Override
+    public void onParse(String expression, boolean valid, long nanos) {
+        long[] lex = lexNanos.get();
+        parsed(lex[0] + nanos);
+        lex[0] = 0;
+        if(!valid) failedCount.increment();
+    }
+
+    @Override
+    public boolean wantsOperatorTimings() {
+        return false;
+    }
+
+    @Override
+    public void onEvaluate(int firstYear, int years, int dates, long nanos) {
+        evaluateCount.increment();
+        evaluateNanos.add(nanos);
+        maxEvaluateNanos.accumulate(nanos);
+        if(nanos >= slowNanos) slowCount.increment();
+    }
+
+    private void parsed(long nanos) {
+        parseCount.increment();
+        parseNanos.add(nanos);
+        maxParseNanos.accumulate(nanos);
+        if(nanos >= slowNanos) slowCount.increment();
+    }
+
+    /**
+     * Pone a cero todas las estadísticas
+     */
+    public void reset() {
+        parseCount.reset();
+        parseNanos.reset();
+        maxParseNanos.reset();
+        evaluateCount.reset();
+        evaluateNanos.reset();
+        maxEvaluateNanos.reset();
+        failedCount.reset();
+        slowCount.reset();
+    }
+
+    /**
+     * Umbral de las expresiones lentas
+     *
+     * @return El umbral en nanosegundos
+     */
+    public long getSlowThresholdNanos() {
+        return slowNanos;
+    }
+
+    /**
+     * Expresiones analizadas, con la gramática o como forma habitual
+     *
+     * @return El número de análisis
+     */
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    /**
+     * Tiempo total de los análisis
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    /**
+     * Tiempo del análisis más lento
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getMaxParseNanos() {
+        return maxParseNanos.get();
+    }
+
+    /**
+     * Planes evaluados
+     *
+     * @return El número de evaluaciones
+     */
+    public long getEvaluateCount() {
+        return evaluateCount.sum();
+    }
+
+    /**
+     * Tiempo total de las evaluaciones
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getEvaluateNanos() {
+        return evaluateNanos.sum();
+    }
+
+    /**
+     * Tiempo de la evaluación más lenta
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getMaxEvaluateNanos() {
+        return maxEvaluateNanos.get();
+    }
+
+    /**
+     * Expresiones analizadas que no son válidas
+     *
+     * @return El número de expresiones inválidas
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Análisis y evaluaciones que han alcanzado el umbral de las expresiones lentas
+     *
+     * @return El número de expresiones lentas
+     */
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+}
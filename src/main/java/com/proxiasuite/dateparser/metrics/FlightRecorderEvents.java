@@ -0,0 +1,132 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+/**
+ * Eventos de Java Flight Recorder del análisis, la evaluación, los resolutores y las cachés.
+ *
+ * Esta es la versión para Java 8, que no hace nada. El JAR es multi-release y en Java 11 o
+ * superior se carga en su lugar la versión de <code>META-INF/versions/11</code>, que emite los
+ * eventos sólo mientras hay una grabación de JFR que los tenga activados.
+ *
+ * Cada operación llama a un método <code>begin</code> antes de empezar y pasa lo que devuelve al
+ * correspondiente <code>end</code> al terminar. Es de uso interno de la librería.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class FlightRecorderEvents {
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Si los eventos se emiten en esta JVM
+     *
+     * @return Si se ha cargado la versión con JFR
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Comienza el análisis de una expresión
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginParse() {
+        return null;
+    }
+
+    /**
+     * Termina el análisis de una expresión
+     *
+     * @param event      El evento en curso
+     * @param expression La expresión
+     * @param valid      Si la expresión es válida
+     */
+    public static void endParse(Object event, String expression, boolean valid) {
+    }
+
+    /**
+     * Comienza la evaluación de un plan
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginEvaluate() {
+        return null;
+    }
+
+    /**
+     * Termina la evaluación de un plan
+     *
+     * @param event     El evento en curso
+     * @param planHash  El código hash del plan
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    public static void endEvaluate(Object event, int planHash, int firstYear, int years, int dates) {
+    }
+
+    /**
+     * Comienza la invocación de un resolutor
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginResolve() {
+        return null;
+    }
+
+    /**
+     * Termina la invocación de un resolutor
+     *
+     * @param event     El evento en curso
+     * @param resolver  El tipo de fecha o el nombre del átomo
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    public static void endResolve(Object event, String resolver, int firstYear, int years, int dates) {
+    }
+
+    /**
+     * Comienza la búsqueda en una caché
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginCacheLookup() {
+        return null;
+    }
+
+    /**
+     * Termina la búsqueda en una caché
+     *
+     * @param event      El evento en curso
+     * @param cache      El nombre de la caché, {@link DateExpressionMetrics#PLAN_CACHE} o
+     *                   {@link DateExpressionMetrics#RESULT_CACHE}
+     * @param expression La expresión
+     * @param hit        Si estaba en la caché
+     */
+    public static void endCacheLookup(Object event, String cache, String expression, boolean hit) {
+    }
+}
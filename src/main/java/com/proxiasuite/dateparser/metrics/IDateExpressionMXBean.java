@@ -0,0 +1,165 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+/**
+ * Atributos y operaciones de gestión de la librería publicados por JMX con
+ * {@link DateExpressionManagement}. Los tiempos se expresan en milisegundos. Los atributos de una
+ * caché que no se gestiona valen cero.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public interface IDateExpressionMXBean {
+    /**
+     * Planes compilados guardados por el motor
+     *
+     * @return El número de expresiones
+     */
+    int getPlanCacheSize();
+
+    /**
+     * Proporción de compilaciones resueltas con un plan guardado
+     *
+     * @return La proporción, entre 0 y 1
+     */
+    double getPlanCacheHitRatio();
+
+    /**
+     * Expresiones en la caché de resultados
+     *
+     * @return El número de expresiones
+     */
+    int getResultCacheSize();
+
+    /**
+     * Peso de la caché de resultados
+     *
+     * @return El número de fechas guardadas
+     */
+    long getResultCacheWeight();
+
+    /**
+     * Proporción de peticiones a la caché de resultados resueltas sin evaluar ningún año
+     *
+     * @return La proporción, entre 0 y 1
+     */
+    double getResultCacheHitRatio();
+
+    /**
+     * Expresiones descartadas de la caché de resultados por peso
+     *
+     * @return El número de descartes
+     */
+    long getResultCacheEvictionCount();
+
+    /**
+     * Estados de las cachés DFA de los analizadores
+     *
+     * @return El número de estados
+     */
+    int getDfaStateCount();
+
+    /**
+     * Veces que se han vaciado las cachés DFA
+     *
+     * @return El número de vaciados
+     */
+    long getDfaClearCount();
+
+    /**
+     * Expresiones analizadas, con la gramática o como forma habitual
+     *
+     * @return El número de análisis
+     */
+    long getParseCount();
+
+    /**
+     * Tiempo medio de análisis
+     *
+     * @return El tiempo en milisegundos
+     */
+    double getAverageParseMillis();
+
+    /**
+     * Tiempo del análisis más lento
+     *
+     * @return El tiempo en milisegundos
+     */
+    double getMaxParseMillis();
+
+    /**
+     * Planes evaluados
+     *
+     * @return El número de evaluaciones
+     */
+    long getEvaluateCount();
+
+    /**
+     * Tiempo medio de evaluación
+     *
+     * @return El tiempo en milisegundos
+     */
+    double getAverageEvaluateMillis();
+
+    /**
+     * Tiempo de la evaluación más lenta
+     *
+     * @return El tiempo en milisegundos
+     */
+    double getMaxEvaluateMillis();
+
+    /**
+     * Análisis y evaluaciones que han alcanzado el umbral de las expresiones lentas
+     *
+     * @return El número de expresiones lentas
+     */
+    long getSlowExpressionCount();
+
+    /**
+     * Expresiones analizadas que no son válidas
+     *
+     * @return El número de expresiones inválidas
+     */
+    long getFailedExpressionCount();
+
+    /**
+     * Descarta los planes compilados del motor
+     */
+    void clearPlanCache();
+
+    /**
+     * Descarta las entradas de la caché de resultados
+     */
+    void clearResultCache();
+
+    /**
+     * Vacía las cachés DFA de los analizadores
+     */
+    void clearDfaCache();
+
+    /**
+     * Pone a cero las estadísticas de análisis y evaluación
+     */
+    void resetStatistics();
+}
@@ -0,0 +1,135 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.parser.OperatorType;
+
+/**
+ * Receptor de las métricas del análisis y la evaluación de expresiones, para enlazarlas con el
+ * sistema de monitorización de la aplicación (Micrometer, Prometheus...). Todos los métodos tienen
+ * una implementación vacía, así que basta con sobrescribir los que interesen.
+ *
+ * Se registra globalmente con {@link DateExpressionMetrics#setDefault(IDateExpressionMetrics)} o
+ * para un motor concreto en su constructor, por ejemplo uno por cliente. Sin receptor no se mide
+ * nada. Se invoca desde el hilo que analiza o evalúa la expresión, por lo que las
+ * implementaciones deben ser rápidas y seguras para uso concurrente.
+ *
+ * Mientras hay un receptor que pide el tiempo de cada operación ({@link #wantsOperatorTimings()}),
+ * los planes se evalúan interpretando las instrucciones para poder medirlas, sin usar su
+ * especialización. Si no lo pide, sólo se mide la evaluación completa.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public interface IDateExpressionMetrics {
+    /**
+     * Se ha reconocido una expresión con una forma habitual, sin pasar por la gramática
+     *
+     * @param expression La expresión
+     * @param nanos      El tiempo de compilación
+     */
+    default void onFastPath(String expression, long nanos) {
+    }
+
+    /**
+     * Se ha dividido una expresión en componentes léxicos
+     *
+     * @param expression La expresión
+     * @param tokens     El número de componentes léxicos
+     * @param nanos      El tiempo del análisis léxico
+     */
+    default void onLex(String expression, int tokens, long nanos) {
+    }
+
+    /**
+     * Se ha analizado y compilado una expresión con la gramática
+     *
+     * @param expression La expresión
+     * @param valid      Si la expresión es válida
+     * @param nanos      El tiempo del análisis sintáctico y la compilación
+     */
+    default void onParse(String expression, boolean valid, long nanos) {
+    }
+
+    /**
+     * Error sintáctico de una expresión, se notifica cada uno de ellos aunque el analizador se
+     * recupere y la expresión acabe siendo válida
+     *
+     * @param expression La expresión
+     * @param line       La línea del error
+     * @param position   La posición del error en la línea
+     * @param message    El mensaje del analizador
+     */
+    default void onSyntaxError(String expression, int line, int position, String message) {
+    }
+
+    /**
+     * Si el receptor necesita el tiempo de cada operación de un plan ({@link #onOperator}). Medirlas
+     * obliga a interpretar el plan y a leer el reloj en cada instrucción, así que los receptores que
+     * sólo usan {@link #onEvaluate} deberían devolver false para no perder la especialización.
+     *
+     * @return Si se notifica cada operación
+     */
+    default boolean wantsOperatorTimings() {
+        return true;
+    }
+
+    /**
+     * Se ha ejecutado una operación de un plan
+     *
+     * @param type  El tipo de operación
+     * @param dates El número de fechas del resultado
+     * @param nanos El tiempo de la operación
+     */
+    default void onOperator(OperatorType type, int dates, long nanos) {
+    }
+
+    /**
+     * Se ha evaluado un plan completo
+     *
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     * @param nanos     El tiempo de la evaluación
+     */
+    default void onEvaluate(int firstYear, int years, int dates, long nanos) {
+    }
+
+    /**
+     * Acierto en una caché
+     *
+     * @param cache El nombre de la caché, {@link DateExpressionMetrics#PLAN_CACHE} o
+     *              {@link DateExpressionMetrics#RESULT_CACHE}
+     */
+    default void onCacheHit(String cache) {
+    }
+
+    /**
+     * Fallo en una caché
+     *
+     * @param cache El nombre de la caché, {@link DateExpressionMetrics#PLAN_CACHE} o
+     *              {@link DateExpressionMetrics#RESULT_CACHE}
+     */
+    default void onCacheMiss(String cache) {
+    }
+}
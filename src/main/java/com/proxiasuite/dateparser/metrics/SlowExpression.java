@@ -0,0 +1,175 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import java.util.Locale;
+
+/**
+ * Expresión capturada por {@link SlowExpressionLog}: el texto, la ventana de años y el tiempo de
+ * cada fase, junto con el tamaño del resultado.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class SlowExpression {
+    private final String expression;
+    private final int firstYear;
+    private final int years;
+    private final boolean fullWeeks;
+    private final long compileNanos;
+    private final long evaluateNanos;
+    private final int dates;
+    private final boolean sampled;
+    private final long timestamp;
+    private final String thread;
+
+    SlowExpression(String expression, int firstYear, int years, boolean fullWeeks, long compileNanos,
+                   long evaluateNanos, int dates, boolean sampled, long timestamp, String thread) {
+        this.expression = expression;
+        this.firstYear = firstYear;
+        this.years = years;
+        this.fullWeeks = fullWeeks;
+        this.compileNanos = compileNanos;
+        this.evaluateNanos = evaluateNanos;
+        this.dates = dates;
+        this.sampled = sampled;
+        this.timestamp = timestamp;
+        this.thread = thread;
+    }
+
+    /**
+     * Texto de la expresión
+     *
+     * @return La expresión
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Primer año de la ventana
+     *
+     * @return El primer año
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Número de años de la ventana
+     *
+     * @return El número de años
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Si el computo de semanas es siempre de semana completa
+     *
+     * @return Si las semanas son completas
+     */
+    public boolean isFullWeeks() {
+        return fullWeeks;
+    }
+
+    /**
+     * Tiempo de la compilación, con la búsqueda en la caché de planes si la hay
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    /**
+     * Tiempo de la evaluación del plan
+     *
+     * @return El tiempo en nanosegundos, cero si la expresión no es válida
+     */
+    public long getEvaluateNanos() {
+        return evaluateNanos;
+    }
+
+    /**
+     * Tiempo total de la resolución
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getTotalNanos() {
+        return compileNanos + evaluateNanos;
+    }
+
+    /**
+     * Número de fechas del resultado
+     *
+     * @return El número de fechas, -1 si la expresión no es válida
+     */
+    public int getDates() {
+        return dates;
+    }
+
+    /**
+     * Si la expresión es válida
+     *
+     * @return Si se ha obtenido un resultado
+     */
+    public boolean isValid() {
+        return dates >= 0;
+    }
+
+    /**
+     * Si se ha capturado por muestreo y no por superar el umbral
+     *
+     * @return Si es una muestra
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Momento de la captura
+     *
+     * @return Los milisegundos desde 1970, como {@link System#currentTimeMillis()}
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Hilo que ha resuelto la expresión
+     *
+     * @return El nombre del hilo
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s \"%s\" %d+%d%s: compilación %.3f ms, evaluación %.3f ms, %s",
+                             sampled ? "muestra" : "lenta", expression, firstYear, years,
+                             fullWeeks ? " semanas completas" : "", compileNanos / 1e6, evaluateNanos / 1e6,
+                             dates < 0 ? "inválida" : dates + " fechas");
+    }
+}
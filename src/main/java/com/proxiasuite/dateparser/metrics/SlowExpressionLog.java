@@ -0,0 +1,227 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de expresiones lentas: cuando la compilación o la evaluación de una expresión alcanza
+ * el umbral, o para una fracción de las llamadas elegida al azar, captura el texto, la ventana de
+ * años, el tiempo de cada fase y el número de fechas del resultado. Las capturas se guardan en un
+ * buffer circular con las más recientes y, si lo hay, se pasan a un {@link ISlowExpressionListener}.
+ *
+ * Se registra globalmente con {@link #setDefault(SlowExpressionLog)} y lo usan
+ * {@link com.proxiasuite.dateparser.DateExpression#parse} y
+ * {@link com.proxiasuite.dateparser.DateExpressionEngine#parse}. Sin registro no se mide nada, y
+ * con él cada resolución sólo añade dos lecturas del reloj y una comparación: la captura, con el
+ * recuento de las fechas, se construye únicamente si se supera el umbral o la llamada sale en la
+ * muestra.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class SlowExpressionLog {
+    /**
+     * Número de capturas que se guardan por defecto
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static volatile SlowExpressionLog defaultLog;
+
+    /**
+     * Umbral de las fases lentas
+     */
+    private final long thresholdNanos;
+
+    /**
+     * Fracción de las llamadas que se capturan aunque no sean lentas
+     */
+    private final double sampleRate;
+
+    /**
+     * Destino de las capturas, nulo si sólo se guardan en el buffer
+     */
+    private final ISlowExpressionListener listener;
+
+    /**
+     * Buffer circular con las últimas capturas
+     */
+    private final SlowExpression[] entries;
+
+    /**
+     * Número total de capturas, la siguiente posición del buffer es su resto
+     */
+    private long captured;
+
+    /**
+     * Constructor sin muestreo ni destino, las capturas sólo se guardan en el buffer
+     *
+     * @param threshold Tiempo de compilación o de evaluación a partir del cual se captura la expresión
+     * @param unit      La unidad del umbral
+     */
+    public SlowExpressionLog(long threshold, TimeUnit unit) {
+        this(threshold, unit, 0, DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param threshold  Tiempo de compilación o de evaluación a partir del cual se captura la expresión
+     * @param unit       La unidad del umbral
+     * @param sampleRate Fracción, entre 0 y 1, de las llamadas que se capturan aunque no sean lentas
+     * @param capacity   Número de capturas que se guardan, 0 para no guardar ninguna
+     * @param listener   El destino de las capturas, nulo si sólo se guardan en el buffer
+     */
+    public SlowExpressionLog(long threshold, TimeUnit unit, double sampleRate, int capacity,
+                             ISlowExpressionListener listener) {
+        if(threshold < 0) {
+            throw new IllegalArgumentException("El umbral no puede ser negativo: " + threshold);
+        }
+        if(!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("La fracción de muestreo debe estar entre 0 y 1: " + sampleRate);
+        }
+        if(capacity < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa: " + capacity);
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+        this.sampleRate = sampleRate;
+        this.entries = new SlowExpression[capacity];
+        this.listener = listener;
+    }
+
+    /**
+     * Registro por defecto
+     *
+     * @return El registro, nulo si no hay ninguno
+     */
+    public static SlowExpressionLog getDefault() {
+        return defaultLog;
+    }
+
+    /**
+     * Registra el registro por defecto
+     *
+     * @param log El registro, nulo para no medir nada
+     */
+    public static void setDefault(SlowExpressionLog log) {
+        defaultLog = log;
+    }
+
+    /**
+     * Anota la resolución de una expresión, que se captura si alguna de sus fases alcanza el umbral
+     * o si sale en la muestra
+     *
+     * @param expression    La expresión
+     * @param firstYear     El primer año
+     * @param years         El número de años
+     * @param fullWeeks     Si el computo de semanas es siempre de semana completa
+     * @param compileNanos  El tiempo de compilación
+     * @param evaluateNanos El tiempo de evaluación, cero si la expresión no es válida
+     * @param result        El resultado, nulo si la expresión no es válida
+     * @return Si se ha capturado
+     */
+    public boolean record(String expression, int firstYear, int years, boolean fullWeeks, long compileNanos,
+                          long evaluateNanos, DateExpression result) {
+        boolean slow = compileNanos >= thresholdNanos || evaluateNanos >= thresholdNanos;
+        if(!slow && (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return false;
+        }
+        SlowExpression entry = new SlowExpression(expression, firstYear, years, fullWeeks, compileNanos,
+                                                  evaluateNanos, result == null ? -1 : result.getDateCount(), !slow, System.currentTimeMillis(),
+                                                  Thread.currentThread().getName());
+        synchronized (this) {
+            if(entries.length > 0) {
+                entries[(int) (captured % entries.length)] = entry;
+            }
+            captured++;
+        }
+        // El destino se invoca fuera del bloqueo
+        if(listener != null) listener.onSlowExpression(entry);
+        return true;
+    }
+
+    /**
+     * Últimas capturas guardadas
+     *
+     * @return Las capturas, de la más antigua a la más reciente
+     */
+    public synchronized List<SlowExpression> getEntries() {
+        int size = (int) Math.min(captured, entries.length);
+        List<SlowExpression> list = new ArrayList<>(size);
+        for(long i = captured - size; i < captured; i++) {
+            list.add(entries[(int) (i % entries.length)]);
+        }
+        return list;
+    }
+
+    /**
+     * Descarta las capturas guardadas
+     */
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        captured = 0;
+    }
+
+    /**
+     * Capturas realizadas desde la creación o desde el último {@link #clear()}, incluidas las que
+     * ya no están en el buffer
+     *
+     * @return El número de capturas
+     */
+    public synchronized long getCapturedCount() {
+        return captured;
+    }
+
+    /**
+     * Umbral de las fases lentas
+     *
+     * @return El umbral en nanosegundos
+     */
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Fracción de las llamadas que se capturan aunque no sean lentas
+     *
+     * @return La fracción, entre 0 y 1
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Número de capturas que se guardan
+     *
+     * @return La capacidad del buffer
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,489 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionLimits;
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.FlightRecorderEvents;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalUnit;
+import java.time.temporal.WeekFields;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Plan de ejecución de una expresión de fecha: la expresión compilada una única vez a una secuencia
+ * de instrucciones sobre registros, que se puede evaluar tantas veces como se quiera y para
+ * cualquier ventana de años sin volver a analizar el texto.
+ *
+ * Se puede compartir entre hilos, cada evaluación usa sus propios registros.
+ *
+ * Las primeras evaluaciones interpretan las instrucciones. Cuando un plan supera
+ * {@link #SPECIALIZE_THRESHOLD} evaluaciones se especializa en un árbol de
+ * {@link MethodHandle}s con los argumentos constantes ya ligados, que no recorre las
+ * instrucciones ni los registros, y que devuelve exactamente el mismo resultado.
+ *
+ * Las instrucciones de las que no depende el resultado, como las definiciones que no se usan, se
+ * descartan al construir el plan, así que ninguna de las dos formas las evalúa y las dos aplican
+ * los límites de {@link DateExpressionLimits} a las mismas operaciones.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class DateExpressionPlan {
+    /**
+     * Número de evaluaciones tras las que se especializa el plan
+     */
+    public static final int SPECIALIZE_THRESHOLD = 1000;
+
+    /**
+     * Instrucciones en orden de ejecución
+     */
+    private final Instruction[] instructions;
+
+    /**
+     * Número de registros
+     */
+    private final int registers;
+
+    /**
+     * Registro con el resultado
+     */
+    private final int result;
+
+    /**
+     * Si la expresión es aproximada
+     */
+    private final boolean approximate;
+
+    /**
+     * Años que pueden separar una fecha del resultado de las fechas de las que se obtiene
+     */
+    private final int reachYears;
+
+    /**
+     * Evaluaciones interpretadas, hasta alcanzar el umbral de especialización. Se incrementa sin
+     * sincronizar: perder alguna evaluación sólo retrasa la especialización.
+     */
+    private int evaluations;
+
+    /**
+     * Plan especializado, nulo mientras se interpreta
+     */
+    private volatile MethodHandle specialized;
+
+    DateExpressionPlan(Instruction[] instructions, int registers, int result, boolean approximate) {
+        this.instructions = live(instructions, registers, result);
+        this.registers = registers;
+        this.result = result;
+        this.approximate = approximate;
+        this.reachYears = reachYears(this.instructions);
+    }
+
+    /**
+     * Evalúa el plan para una ventana de años
+     *
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param week      La semana del idioma de trabajo
+     * @return Una nueva expresión de fecha
+     */
+    public DateExpression evaluate(int firstYear, int years, boolean fullWeeks, WeekFields week) {
+        return evaluate(firstYear, years, fullWeeks, week, DateExpressionMetrics.getDefault());
+    }
+
+    /**
+     * Evalúa el plan para una ventana de años, notificando las métricas de cada operación y de la
+     * evaluación completa
+     *
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param week      La semana del idioma de trabajo
+     * @param metrics   El receptor de métricas, {@link DateExpressionMetrics#NONE} para no medir
+     * @return Una nueva expresión de fecha
+     */
+    public DateExpression evaluate(int firstYear, int years, boolean fullWeeks, WeekFields week,
+                                   IDateExpressionMetrics metrics) {
+        DateExpressionLimits limits = DateExpressionLimits.getDefault();
+        limits.checkYears(years);
+        return evaluate(firstYear, years, fullWeeks, week, metrics, limits);
+    }
+
+    /**
+     * Evalúa el plan para una ventana de años con un margen de años a cada lado, sin recortar el
+     * resultado. El límite de años de {@link DateExpressionLimits} se comprueba con la ventana
+     * pedida, sin el margen, de forma que se admiten las mismas ventanas que en {@link #evaluate};
+     * el margen lo acota el límite de los desplazamientos.
+     *
+     * @param firstYear   El primer año de la ventana pedida
+     * @param years       El número de años de la ventana pedida
+     * @param marginYears Los años de margen a cada lado, por ejemplo {@link #getReachYears()}
+     * @param fullWeeks   Si el computo de semanas es siempre de semana completa
+     * @param week        La semana del idioma de trabajo
+     * @return Una nueva expresión de fecha con las fechas de la ventana y del margen
+     */
+    public DateExpression evaluateWithMargin(int firstYear, int years, int marginYears, boolean fullWeeks,
+                                             WeekFields week) {
+        DateExpressionLimits limits = DateExpressionLimits.getDefault();
+        limits.checkYears(years);
+        return evaluate(firstYear - marginYears, years + 2 * marginYears, fullWeeks, week,
+                        DateExpressionMetrics.getDefault(), limits);
+    }
+
+    /**
+     * Evalúa el plan con los años ya comprobados
+     */
+    private DateExpression evaluate(int firstYear, int years, boolean fullWeeks, WeekFields week,
+                                    IDateExpressionMetrics metrics, DateExpressionLimits limits) {
+        Object event = FlightRecorderEvents.beginEvaluate();
+        DateExpression de;
+        if(metrics == DateExpressionMetrics.NONE) {
+            de = run(firstYear, years, fullWeeks, week, limits);
+        } else if(metrics.wantsOperatorTimings()) {
+            de = measure(firstYear, years, fullWeeks, week, metrics, limits);
+        } else {
+            long start = System.nanoTime();
+            de = run(firstYear, years, fullWeeks, week, limits);
+            metrics.onEvaluate(firstYear, years, de.getDateCount(), System.nanoTime() - start);
+        }
+        if(event != null) {
+            // Sólo contamos las fechas si se está grabando
+            FlightRecorderEvents.endEvaluate(event, System.identityHashCode(this), firstYear, years, de.getDateCount());
+        }
+        return de;
+    }
+
+    /**
+     * Evalúa el plan especializado o, hasta alcanzar el umbral, interpretando las instrucciones
+     */
+    private DateExpression run(int firstYear, int years, boolean fullWeeks, WeekFields week,
+                               DateExpressionLimits limits) {
+        MethodHandle handle = specialized;
+        DateExpression de;
+        if(handle != null) {
+            de = invoke(handle, firstYear, years, fullWeeks, week);
+        } else {
+            if(++evaluations == SPECIALIZE_THRESHOLD) {
+                specialize();
+            }
+            de = interpret(firstYear, years, fullWeeks, week, limits);
+        }
+        de.setApproximate(approximate);
+        return de;
+    }
+
+    /**
+     * Evalúa el plan interpretando las instrucciones y midiendo cada una de ellas, y devuelve el
+     * árbol de operaciones con las fechas que recibe y produce cada una por año y su tiempo
+     * (EXPLAIN ANALYZE). El resultado es el mismo que el de {@link #evaluate}.
+     *
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param fullWeeks Si el computo de semanas es siempre de semana completa
+     * @param week      La semana del idioma de trabajo
+     * @return La explicación de la evaluación
+     */
+    public PlanExplanation explain(int firstYear, int years, boolean fullWeeks, WeekFields week) {
+        DateExpressionLimits limits = DateExpressionLimits.getDefault();
+        limits.checkYears(years);
+        long start = System.nanoTime();
+        DateExpression[] r = new DateExpression[registers];
+        ExplainNode[] nodes = new ExplainNode[registers];
+        for(Instruction i: instructions) {
+            long begin = System.nanoTime();
+            r[i.target] = limits.checkDates(execute(i, r, firstYear, years, fullWeeks, week));
+            long nanos = System.nanoTime() - begin;
+
+            ExplainNode[] children = new ExplainNode[i.operands.length];
+            NavigableMap<Integer, Integer> input = new TreeMap<>();
+            for(int k = 0; k < i.operands.length; k++) {
+                children[k] = nodes[i.operands[k]];
+                children[k].getOutputDates().forEach((year, count)->input.merge(year, count, Integer::sum));
+            }
+            nodes[i.target] = new ExplainNode(i, children, input, datesByYear(r[i.target]), nanos);
+        }
+        DateExpression de = r[result];
+        de.setApproximate(approximate);
+        return new PlanExplanation(nodes[result], de, firstYear, years, System.nanoTime() - start);
+    }
+
+    /**
+     * Número de fechas de cada año de una expresión
+     */
+    private static NavigableMap<Integer, Integer> datesByYear(DateExpression de) {
+        NavigableMap<Integer, Integer> dates = new TreeMap<>();
+        for(int year: de.getYears()) {
+            dates.put(year, de.getDates(year).size());
+        }
+        return dates;
+    }
+
+    /**
+     * Especializa el plan en un árbol de {@link MethodHandle}s con los argumentos constantes de cada
+     * instrucción ya ligados. Se hace automáticamente tras {@link #SPECIALIZE_THRESHOLD} evaluaciones,
+     * y el resultado es idéntico al de la interpretación.
+     */
+    public void specialize() {
+        if(specialized == null) {
+            specialized = PlanSpecializer.specialize(instructions, registers, result);
+        }
+    }
+
+    /**
+     * Si el plan está especializado
+     *
+     * @return Si se evalúa mediante el árbol de {@link MethodHandle}s
+     */
+    public boolean isSpecialized() {
+        return specialized != null;
+    }
+
+    /**
+     * Interpreta las instrucciones sobre sus registros
+     */
+    private DateExpression interpret(int firstYear, int years, boolean fullWeeks, WeekFields week,
+                                     DateExpressionLimits limits) {
+        DateExpression[] r = new DateExpression[registers];
+        for(Instruction i: instructions) {
+            r[i.target] = limits.checkDates(execute(i, r, firstYear, years, fullWeeks, week));
+        }
+        return r[result];
+    }
+
+    /**
+     * Interpreta las instrucciones midiendo cada una de ellas
+     */
+    private DateExpression measure(int firstYear, int years, boolean fullWeeks, WeekFields week,
+                                   IDateExpressionMetrics metrics, DateExpressionLimits limits) {
+        long start = System.nanoTime();
+        DateExpression[] r = new DateExpression[registers];
+        for(Instruction i: instructions) {
+            long begin = System.nanoTime();
+            r[i.target] = limits.checkDates(execute(i, r, firstYear, years, fullWeeks, week));
+            metrics.onOperator(i.type, r[i.target].getDateCount(), System.nanoTime() - begin);
+        }
+        DateExpression de = r[result];
+        de.setApproximate(approximate);
+        metrics.onEvaluate(firstYear, years, de.getDateCount(), System.nanoTime() - start);
+        return de;
+    }
+
+    /**
+     * Evalúa el plan especializado
+     */
+    private static DateExpression invoke(MethodHandle handle, int firstYear, int years, boolean fullWeeks,
+                                         WeekFields week) {
+        try {
+            return (DateExpression) handle.invokeExact(firstYear, years, fullWeeks, week);
+        } catch(RuntimeException | Error e) {
+            throw e;
+        } catch(Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Ejecuta una instrucción
+     */
+    static DateExpression execute(Instruction i, DateExpression[] r, int firstYear, int years, boolean fullWeeks,
+                                  WeekFields week) {
+        switch(i.type) {
+            case Resolve:
+                return DateResolverRegistry.getDefault().resolve(i.dateType, firstYear, years, fullWeeks, week);
+            case ResolveNamed:
+                return DateResolverRegistry.getDefault().resolve(i.name, firstYear, years, fullWeeks, week);
+            case At:
+                return r[i.operands[0]].at(i.days);
+            case AtWeekdays:
+                return r[i.operands[0]].at(i.daysOfWeek, i.days);
+            case AtWeek:
+                return r[i.operands[0]].atWeek(i.days);
+            case AtWeekend:
+                return r[i.operands[0]].atWeekend(i.days);
+            case AtFortnight:
+                return r[i.operands[0]].atFortnight(i.days);
+            case To:
+                return r[i.operands[0]].to(r[i.operands[1]]);
+            case And:
+                return r[i.operands[0]].and(r[i.operands[1]]);
+            case Before:
+                return r[i.operands[0]].before(i.amount, i.unit);
+            case BeforeDay:
+                return r[i.operands[0]].before(i.dayOfWeek, i.amount);
+            case BeforeWeekend:
+                return r[i.operands[0]].beforeWeekend(i.amount);
+            case After:
+                return r[i.operands[0]].after(i.amount, i.unit);
+            case AfterDay:
+                return r[i.operands[0]].after(i.dayOfWeek, i.amount);
+            case AfterWeekend:
+                return r[i.operands[0]].afterWeekend(i.amount);
+            case NearDay:
+                return r[i.operands[0]].near(i.dayOfWeek);
+            case NearWeekend:
+                return r[i.operands[0]].nearWeekend();
+            case Compare:
+                return r[i.operands[0]].compare(r[i.operands[1]], i.opcode, r[i.operands[2]], r[i.operands[3]]);
+            default:
+                throw new IllegalStateException("Operación no soportada: " + i.type);
+        }
+    }
+
+    /**
+     * Instrucciones del plan en orden de ejecución
+     *
+     * @return Las instrucciones
+     */
+    public List<Instruction> getInstructions() {
+        return Collections.unmodifiableList(Arrays.asList(instructions));
+    }
+
+    /**
+     * Número de registros que usa el plan
+     *
+     * @return El número de registros
+     */
+    public int getRegisters() {
+        return registers;
+    }
+
+    /**
+     * Registro con el resultado
+     *
+     * @return El índice del registro
+     */
+    public int getResult() {
+        return result;
+    }
+
+    /**
+     * Años que pueden separar una fecha del resultado de las fechas de las que se obtiene, al
+     * menos uno. Se suma el alcance de todos los desplazamientos y periodos del plan, tomando el
+     * de los meses y años más largos, así que es una cota: evaluando con este margen a cada lado
+     * de una ventana, los años de la ventana tienen todas sus fechas.
+     *
+     * @return El número de años
+     */
+    public int getReachYears() {
+        return reachYears;
+    }
+
+    /**
+     * Si la expresión es aproximada
+     *
+     * @return Si es aproximada
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * Instrucciones de las que depende el resultado, en orden de ejecución
+     */
+    private static Instruction[] live(Instruction[] instructions, int registers, int result) {
+        boolean[] used = new boolean[registers];
+        used[result] = true;
+        int count = 0;
+        for(int k = instructions.length - 1; k >= 0; k--) {
+            Instruction i = instructions[k];
+            if(used[i.target]) {
+                count++;
+                for(int operand: i.operands) {
+                    used[operand] = true;
+                }
+            }
+        }
+        if(count == instructions.length) return instructions;
+        Instruction[] live = new Instruction[count];
+        int n = 0;
+        for(Instruction i: instructions) {
+            if(used[i.target]) live[n++] = i;
+        }
+        return live;
+    }
+
+    private static int reachYears(Instruction[] instructions) {
+        long days = 0;
+        for(Instruction instruction: instructions) {
+            days += reachDays(instruction);
+        }
+        // Una fecha desplazada d días cae como mucho d / 365 años (redondeando hacia arriba) más allá
+        return (int) Math.min(Integer.MAX_VALUE / 4, Math.max(1, (days + 364) / 365));
+    }
+
+    /**
+     * Días que puede alejarse el resultado de una instrucción de sus operandos
+     */
+    private static long reachDays(Instruction instruction) {
+        switch (instruction.type) {
+            case To:
+                // Un periodo termina, como mucho, un año después de empezar
+                return 365;
+            case Before:
+            case After:
+                return Math.abs((long) instruction.amount) * maxDays(instruction.unit);
+            case BeforeDay:
+            case AfterDay:
+            case BeforeWeekend:
+            case AfterWeekend:
+                return 7 * Math.max(1, Math.abs((long) instruction.amount));
+            case NearDay:
+            case NearWeekend:
+                return 7;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Duración máxima en días de una unidad de tiempo
+     */
+    private static long maxDays(TemporalUnit unit) {
+        if(unit == ChronoUnit.MONTHS) return 31;
+        if(unit == ChronoUnit.YEARS) return 366;
+        Duration duration = unit.getDuration();
+        return Math.max(1, (duration.getSeconds() + 86399) / 86400);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(Instruction i: instructions) {
+            sb.append(i).append('\n');
+        }
+        sb.append("return r").append(result);
+        if(approximate) sb.append(" aprox");
+        return sb.toString();
+    }
+}
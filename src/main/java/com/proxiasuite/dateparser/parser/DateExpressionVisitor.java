@@ -24,11 +24,20 @@
 package com.proxiasuite.dateparser.parser;
 
 import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionLimitException;
+import com.proxiasuite.dateparser.DateExpressionLimits;
 import com.proxiasuite.dateparser.grammar.DateExpressionGrammarBaseListener;
 import com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser;
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
 import com.proxiasuite.dateparser.resolver.DateType;
-import com.proxiasuite.dateparser.resolver.IDateResolver;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
@@ -36,36 +45,89 @@ import java.time.DayOfWeek;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
+import java.time.temporal.WeekFields;
 import java.util.*;
-import java.util.function.BiFunction;
 
 /**
- * Realiza la interpretación de la gramática. El proceso de interpretación sigue
- * el esquema de una máquina de pila clásica, en la que se van introduciendo
- * información en la pila y es procesado en iteraciones siguientes.
+ * Realiza la interpretación de la gramática. El proceso sigue el esquema de una máquina de pila
+ * clásica, pero se resuelve al compilar: la pila contiene valores tipados (días, calificadores de
+ * día y registros con expresiones de fecha) y cada regla emite las instrucciones de un
+ * {@link DateExpressionPlan}, que se evalúa después sin volver a recorrer la pila.
+ *
+ * La pila es un único par de arrays de enteros, cada regla trabaja sobre su marco (desde la base
+ * que se anota al entrar en la regla) y al salir deja en el marco superior sólo el último valor.
+ *
+ * Todo el trabajo se hace en las notificaciones del analizador, por lo que no necesita el árbol
+ * sintáctico: sólo consulta los tokens de la propia regla, que el analizador asocia al contexto
+ * aunque no construya el árbol. {@link #attach} registra el visitante sin construirlo.
  *
  * @author David Rodríguez Alfayate 
  */
 public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
     /**
-     * Diccionario en el que almacenamos las variables definidas
+     * Tipos de valores de la pila
+     */
+    private static final int DAY = 0;
+    private static final int QUALIFIER = 1;
+    private static final int REGISTER = 2;
+
+    private static final DayQualifierType[] QUALIFIERS = DayQualifierType.values();
+    private static final Integer[] NO_DAYS = new Integer[0];
+
+    /**
+     * Diccionario en el que almacenamos las variables definidas, con el registro de su valor
+     */
+    Map<String, Integer> dictionary;
+
+    /**
+     * Tipos de los valores de la pila
+     */
+    private int[] kinds = new int[16];
+
+    /**
+     * Valores de la pila: el día, el ordinal del calificador o el registro
+     */
+    private int[] values = new int[16];
+
+    /**
+     * Tamaño de la pila
+     */
+    private int size;
+
+    /**
+     * Base del marco de cada regla en curso
+     */
+    private int[] frames = new int[16];
+
+    /**
+     * Número de reglas en curso
+     */
+    private int depth;
+
+    /**
+     * Instrucciones emitidas
+     */
+    private final List<Instruction> instructions = new ArrayList<>();
+
+    /**
+     * Número de registros usados
      */
-    Map<String, DateExpression> dictionary = new HashMap<>();
+    private int registers;
 
     /**
-     * La de pila que mantiene el estado de las expresiones de fecha.
+     * El plan compilado
      */
-    Deque<Deque<Object>> globalStack = new ArrayDeque<>();
+    private DateExpressionPlan plan;
 
     /**
      * La expresión de fecha procesada
      */
-    DateExpression result;
+    private DateExpression result;
 
     /**
      * Numero de años que vamos a periodificar la expresión
      */
-    private final int years;
+    private int years;
 
     /**
      * Si soportamos semanas completas o parciales
@@ -85,7 +147,12 @@ public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
     /**
      * El primer año
      */
-    private final int firstYear;
+    private int firstYear;
+
+    /**
+     * Semana del idioma de trabajo, se calcula una única vez
+     */
+    private final WeekFields week;
 
     /**
      * Si se trata de una expresión aproximada, fechas no exactas
@@ -97,233 +164,344 @@ public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
      */
     private boolean error = false;
 
+    /**
+     * Límites de la expresión en curso
+     */
+    private DateExpressionLimits limits = DateExpressionLimits.getDefault();
+
+    /**
+     * Número de operaciones anidadas en curso
+     */
+    private int nesting;
+
+    /**
+     * Analizador en el que está registrado el visitante
+     */
+    private DateExpressionGrammarParser attached;
+
     public DateExpressionVisitor(ZoneId zoneId, Locale locale, int firstYear, int years, boolean fullWeeks) {
         this.years = years;
         this.fullWeeks = fullWeeks;
         this.zoneId = zoneId;
         this.locale = locale;
         this.firstYear = firstYear;
+        this.week = WeekFields.of(locale);
+    }
+
+    /**
+     * Deja el visitante listo para procesar otra expresión con la misma configuración, de forma
+     * que se pueda reutilizar sin volver a construirlo.
+     *
+     * @param firstYear El primer año
+     * @param years     Numero de años que vamos a periodificar la expresión
+     */
+    public void reset(int firstYear, int years) {
+        this.firstYear = firstYear;
+        this.years = years;
+        this.dictionary = null;
+        this.size = 0;
+        this.depth = 0;
+        this.instructions.clear();
+        this.registers = 0;
+        this.plan = null;
+        this.result = null;
+        this.approximate = false;
+        this.error = false;
+        this.limits = DateExpressionLimits.getDefault();
+        this.nesting = 0;
+        if(attached != null && !attached.getParseListeners().contains(this)) {
+            // Se desregistró al superar un límite
+            attached.addParseListener(this);
+        }
     }
 
     /**
-     * Una vez terminado el procesamiento noes devuelve la expresión de fecha que
-     * se ha resuelto, extractandola de la pila
+     * Una vez terminado el procesamiento nos devuelve la expresión de fecha que
+     * se ha resuelto, evaluando el plan compilado
      *
      * @return  La expresión de fecha reseulta.
      */
     public DateExpression getDateExpression() {
+        if(result == null && plan != null) {
+            result = plan.evaluate(firstYear, years, fullWeeks, week);
+        }
         return result;
     }
 
+    /**
+     * Registra el visitante en un analizador, que deja de construir el árbol sintáctico. El plan se
+     * compila directamente de las notificaciones del analizador, sin retener los contextos de las
+     * reglas ya terminadas.
+     *
+     * @param parser El analizador
+     */
+    public void attach(DateExpressionGrammarParser parser) {
+        parser.setBuildParseTree(false);
+        parser.addParseListener(this);
+        attached = parser;
+    }
+
+    /**
+     * Analiza la expresión que tiene cargada un analizador en el que se ha registrado el visitante
+     * con {@link #attach}, notificando el tiempo del análisis léxico, el del análisis sintáctico y
+     * los errores sintácticos. Para medirlos por separado se leen primero todos los componentes
+     * léxicos, en lugar de irlos leyendo según avanza el análisis.
+     *
+     * @param parser     El analizador
+     * @param expression El texto de la expresión, para las métricas
+     * @param metrics    El receptor de métricas, {@link DateExpressionMetrics#NONE} para no medir
+     */
+    public void parse(DateExpressionGrammarParser parser, String expression, IDateExpressionMetrics metrics) {
+        if(metrics == DateExpressionMetrics.NONE) {
+            parser.prog();
+            return;
+        }
+        BaseErrorListener errors = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                metrics.onSyntaxError(expression, line, charPositionInLine, msg);
+            }
+        };
+        BufferedTokenStream tokens = (BufferedTokenStream) parser.getTokenStream();
+        Lexer lexer = (Lexer) tokens.getTokenSource();
+        lexer.addErrorListener(errors);
+        parser.addErrorListener(errors);
+        try {
+            long start = System.nanoTime();
+            tokens.fill();
+            long lexed = System.nanoTime();
+            // Sin contar el fin de fichero
+            metrics.onLex(expression, tokens.size() - 1, lexed - start);
+            parser.prog();
+            metrics.onParse(expression, plan != null, System.nanoTime() - lexed);
+        } finally {
+            lexer.removeErrorListener(errors);
+            parser.removeErrorListener(errors);
+        }
+    }
+
+    /**
+     * El plan compilado de la expresión
+     *
+     * @return El plan, nulo si la expresión no es válida
+     */
+    public DateExpressionPlan getPlan() {
+        return plan;
+    }
+
     @Override
     public void exitProg(DateExpressionGrammarParser.ProgContext ctx) {
-        Object o = getStack().poll();
-        if(o instanceof DateExpression && !error) {
-            result = (DateExpression) o;
-            result.setApproximate(approximate);
+        int base = frames[depth - 1];
+        if(size > base && kinds[size - 1] == REGISTER && !error) {
+            plan = new DateExpressionPlan(instructions.toArray(new Instruction[0]), registers, values[size - 1], approximate);
         }
+        size = base;
     }
 
     @Override
     public void exitLogic(DateExpressionGrammarParser.LogicContext ctx) {
-
-        DateExpression main = null;
-        DateExpression compared = null;
-        DateExpression positive = null;
-        DateExpression negative = null;
-        while(!getStack().isEmpty()) {
-            Object o = getStack().poll();
-            // La lógica la definen 4 variables.
-            // Primera que extraemos de la pila -> Condición si no
-            // Segunda que extraemos de la pila -> Condición SI
-            // Terera que extreamos de la pila -> Destino de la comparación
-            // Cuarta que extraemos de la pila -> Objeto sobre el que que comparamos.
-            if (o instanceof DateExpression) {
-                if(negative == null) negative = (DateExpression)o;
-                else if(positive == null) positive = (DateExpression)o;
-                else if(compared == null) compared = (DateExpression)o;
-                else main = (DateExpression)o;
+        // La lógica la definen 4 variables.
+        // Primera que extraemos de la pila -> Condición si no
+        // Segunda que extraemos de la pila -> Condición SI
+        // Terera que extreamos de la pila -> Destino de la comparación
+        // Cuarta que extraemos de la pila -> Objeto sobre el que que comparamos.
+        int main = -1, compared = -1, positive = -1, negative = -1;
+        int base = frames[depth - 1];
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == REGISTER) {
+                if(negative == -1) negative = values[i];
+                else if(positive == -1) positive = values[i];
+                else if(compared == -1) compared = values[i];
+                else main = values[i];
             }
         }
+        size = base;
         DateExpression.Opcode opcode = DateExpression.Opcode.EQUALS;
         if(ctx.Greater()!=null) opcode = DateExpression.Opcode.GREATER;
         else if(ctx.Lesser()!=null) opcode = DateExpression.Opcode.LESSER;
 
-        if(main!=null) {
-            getStack().push(main.compare(compared, opcode, positive, negative));
+        if(main != -1) {
+            // Con la expresión principal están también las otras tres
+            push(REGISTER, emit(Instruction.compare(registers++, main, compared, positive, negative, opcode)));
         }
-
     }
 
     @Override
     public void exitDef(DateExpressionGrammarParser.DefContext ctx) {
-        DateExpression expr = null;
-        while(!getStack().isEmpty()) {
-            Object o = getStack().poll();
-            if (o instanceof DateExpression) {
-                expr = (DateExpression) o;
+        int expr = -1;
+        int base = frames[depth - 1];
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == REGISTER) {
+                expr = values[i];
             }
         }
+        size = base;
         // Tenemos que asignar esa variable al diccionario.
-        dictionary.put(ctx.ID().getText(),expr);
+        if(dictionary == null) dictionary = new HashMap<>();
+        dictionary.put(ctx.ID().getText(), expr);
     }
 
     @Override
     public void exitExpr(DateExpressionGrammarParser.ExprContext ctx) {
-        DateExpression expr = null;
-        while(!getStack().isEmpty()) {
-            Object o = getStack().poll();
-            if (o instanceof DateExpression) {
-                if(expr == null) {
-                    expr = (DateExpression) o;
+        int expr = -1;
+        int base = frames[depth - 1];
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == REGISTER) {
+                if(expr == -1) {
+                    expr = values[i];
                 } else {
-                    expr = expr.and((DateExpression)o);
+                    expr = emit(Instruction.binary(OperatorType.And, registers++, expr, values[i]));
                 }
             }
         }
-        if(expr!=null) getStack().push(expr);
+        size = base;
+        if(expr != -1) push(REGISTER, expr);
     }
 
     @Override
     public void exitPeriod(DateExpressionGrammarParser.PeriodContext ctx) {
-        DateExpression from = null;
-        DateExpression to = null;
-        while(!getStack().isEmpty()) {
-            // Tenemos que tener en cuenta que la pila se recorre al reves,
-            // es decir... primero tenemos el FROm y luego el TO pero al sacar
-            // d la pila sacamos primero el TO y luego el FROM
-            Object o = getStack().poll();
-            if (o instanceof DateExpression) {
-                if (to == null) to = (DateExpression) o;
-                else from = (DateExpression) o;
+        // Tenemos que tener en cuenta que la pila se recorre al reves,
+        // es decir... primero tenemos el FROM y luego el TO pero al sacar
+        // d la pila sacamos primero el TO y luego el FROM
+        int from = -1, to = -1;
+        int base = frames[depth - 1];
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == REGISTER) {
+                if(to == -1) to = values[i];
+                else from = values[i];
             }
         }
-        if(to!=null) {
-            if (from == null) {
-                getStack().push(to);
+        size = base;
+        if(to != -1) {
+            if(from == -1) {
+                push(REGISTER, to);
             } else {
-                getStack().push(from.to(to));
+                push(REGISTER, emit(Instruction.binary(OperatorType.To, registers++, from, to)));
             }
         }
     }
 
     @Override
     public void exitBefore(DateExpressionGrammarParser.BeforeContext ctx) {
-        resolveNeighborhoodStackOperation(ctx, DateExpression::before,
-                                               DateExpression::before,
-                                               DateExpression::beforeWeekend);
+        resolveNeighborhoodStackOperation(ctx, OperatorType.Before, OperatorType.BeforeDay, OperatorType.BeforeWeekend);
     }
 
     @Override
     public void exitAfter(DateExpressionGrammarParser.AfterContext ctx) {
-        resolveNeighborhoodStackOperation(ctx, DateExpression::after,
-                                               DateExpression::after,
-                                               DateExpression::afterWeekend);
+        resolveNeighborhoodStackOperation(ctx, OperatorType.After, OperatorType.AfterDay, OperatorType.AfterWeekend);
     }
 
     @Override
     public void exitNear(DateExpressionGrammarParser.NearContext ctx) {
-        resolveNeighborhoodStackOperation(ctx,(expr,amount,unit)->expr,
-                                              (expr,dayOfWeek,amount)->expr.near(dayOfWeek),
-                                              (expr,amount)->expr.nearWeekend());
-    }
-
-    @FunctionalInterface
-    interface TriFunction<T, U, S, R> {
-
-        /**
-         * Applies this function to the given arguments.
-         *
-         * @param t the first function argument
-         * @param u the second function argument
-         * @return the function result
-         */
-        R apply(T t, U u, S s);
+        resolveNeighborhoodStackOperation(ctx, null, OperatorType.NearDay, OperatorType.NearWeekend);
     }
 
-
     /**
-     * Ejecuta una operación de "proximidad" sobre la pila, la expresión de proximidad es "antes de",
+     * Compila una operación de "proximidad" sobre la pila, la expresión de proximidad es "antes de",
      * "despues de" o "cerca de"
      *
      * @param ctx                El conexto de parsing
-     * @param unitProcessor      Functión (trifunction) que procesa para la resolución de unidades
-     * @param dayOfWeekProcessor Functión (trifunction) que procesa para la resolución de días de semana
-     * @param weekendProcessor   Functión (bifunction) que procesa para la resolución de fines de semana
+     * @param unitOperator       Operación para la resolución de unidades, nula si no se desplaza
+     * @param dayOfWeekOperator  Operación para la resolución de días de semana
+     * @param weekendOperator    Operación para la resolución de fines de semana
      */
     void resolveNeighborhoodStackOperation(ParserRuleContext ctx,
-                                           TriFunction<DateExpression,Integer,TemporalUnit,DateExpression> unitProcessor,
-                                           TriFunction<DateExpression,DayOfWeek,Integer,DateExpression> dayOfWeekProcessor,
-                                           BiFunction<DateExpression,Integer,DateExpression> weekendProcessor) {
+                                           OperatorType unitOperator,
+                                           OperatorType dayOfWeekOperator,
+                                           OperatorType weekendOperator) {
         // En la pila estan todas las posibilidades, podemos tener un día
         // un día de la semana (weekDay) una expresión
         int amount = 1;
         DayQualifierType qualifierType = null;
-        DateExpression expr = null;
+        int expr = -1;
 
         // Regulador de fechas que por defecto será 1 día.
         TemporalUnit unit = guessTemporalUnitFromParseContext(ctx);
 
-        // Rellneamos con la pila.
-        while(!getStack().isEmpty()) {
-            Object o = getStack().poll();
-            if(o instanceof DayQualifierType) {
-                qualifierType = (DayQualifierType) o;
-            } else if(o instanceof DateExpression) {
-                expr = (DateExpression) o;
-            } else if(o instanceof Integer) {
-                amount = (Integer)o;
+        int base = frames[depth - 1];
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == QUALIFIER) {
+                qualifierType = QUALIFIERS[values[i]];
+            } else if(kinds[i] == REGISTER) {
+                expr = values[i];
+            } else {
+                amount = values[i];
             }
         }
-        // Ahora tenemos que decidir que tipo de operación after aplicamos
+        size = base;
+        if(amount > limits.getMaxShift()) {
+            throw abort(new DateExpressionLimitException(DateExpressionLimitException.Limit.SHIFT,
+                                                         limits.getMaxShift(), amount));
+        }
+        if(expr == -1) {
+            // Sin expresión sobre la que operar (un identificador desconocido) la expresión no es válida
+            error = true;
+            return;
+        }
+        // Ahora tenemos que decidir que tipo de operación aplicamos
         // en función de los datos.
-        if(qualifierType==null) {
-            expr = unitProcessor.apply(expr,amount,unit);
-        } else if(qualifierType.dayOfWeek != null){
-            expr = dayOfWeekProcessor.apply(expr,qualifierType.dayOfWeek,amount);
+        if(qualifierType == null) {
+            if(unitOperator != null) {
+                expr = emit(Instruction.shift(unitOperator, registers++, expr, amount, unit, null));
+            }
+        } else if(qualifierType.dayOfWeek != null) {
+            expr = emit(Instruction.shift(dayOfWeekOperator, registers++, expr, amount, null, qualifierType.dayOfWeek));
         } else if(qualifierType == DayQualifierType.Weekend) {
-            expr = weekendProcessor.apply(expr,amount);
+            expr = emit(Instruction.shift(weekendOperator, registers++, expr, amount, null, null));
         }
         // Lo recolocamos en la pila...
-        getStack().push(expr);
+        push(REGISTER, expr);
     }
 
 
     @Override
     public void exitAt(DateExpressionGrammarParser.AtContext ctx) {
-        // Sobrecargamos el exit, porque ya ha introducido en la pila las operaciones
-        // correspondientes a los días, a los posibles días de la semana y la
+        // Ya están en la pila los días, los posibles días de la semana y la
         // expresión de fecha sobre la que trabajamos.
-        List<Integer> days = new ArrayList<>();
-        List<DayQualifierType> dayQualifiers = new ArrayList<>();
-        DateExpression expr = null;
-        while(!getStack().isEmpty()) {
-            Object o = getStack().poll();
-            if(o instanceof Integer) {
-                days.add((Integer)o);
-            } else if(o instanceof DayQualifierType) {
-                dayQualifiers.add((DayQualifierType)o);
-            } else if(o instanceof DateExpression) {
-                expr = (DateExpression)o;
+        int base = frames[depth - 1];
+        int dayCount = 0;
+        int expr = -1;
+        boolean week = false, weekend = false, fortnight = false;
+        List<DayOfWeek> daysOfWeek = null;
+        for(int i = size - 1; i >= base; i--) {
+            if(kinds[i] == DAY) {
+                dayCount++;
+            } else if(kinds[i] == QUALIFIER) {
+                DayQualifierType qualifier = QUALIFIERS[values[i]];
+                if(qualifier == DayQualifierType.Week) week = true;
+                else if(qualifier == DayQualifierType.Weekend) weekend = true;
+                else if(qualifier == DayQualifierType.Fortnight) fortnight = true;
+                if(daysOfWeek == null) daysOfWeek = new ArrayList<>();
+                if(qualifier.dayOfWeek != null) daysOfWeek.add(qualifier.dayOfWeek);
+            } else {
+                expr = values[i];
             }
         }
+        Integer[] days = dayCount == 0 ? NO_DAYS : new Integer[dayCount];
+        for(int i = size - 1, d = 0; i >= base; i--) {
+            if(kinds[i] == DAY) days[d++] = values[i];
+        }
+        size = base;
         // Tenemos que aplicar sobre la expresión la condición de "at" que tengamos
         // determinada.
-        if(expr!=null) {
-            if (dayQualifiers.stream().anyMatch(d -> d == DayQualifierType.Week)) {
-                expr = expr.atWeek(days.toArray(new Integer[0]));
-            } else if (dayQualifiers.stream().anyMatch(d -> d == DayQualifierType.Weekend)) {
-                expr = expr.atWeekend(days.toArray(new Integer[0]));
-            } else if (dayQualifiers.stream().anyMatch(d -> d == DayQualifierType.Fortnight)) {
-                expr = expr.atFortnight(days.toArray(new Integer[0]));
-            } else if (!dayQualifiers.isEmpty()) {
-                expr = expr.at(dayQualifiers.stream().filter(d -> d.dayOfWeek != null).map(d -> d.dayOfWeek).toArray(DayOfWeek[]::new),
-                        days.toArray(new Integer[0]));
+        if(expr != -1) {
+            OperatorType type;
+            DayOfWeek[] weekdays = null;
+            if(week) {
+                type = OperatorType.AtWeek;
+            } else if(weekend) {
+                type = OperatorType.AtWeekend;
+            } else if(fortnight) {
+                type = OperatorType.AtFortnight;
+            } else if(daysOfWeek != null) {
+                type = OperatorType.AtWeekdays;
+                weekdays = daysOfWeek.toArray(new DayOfWeek[0]);
             } else {
-                expr = expr.at(days.toArray(new Integer[0]));
+                type = OperatorType.At;
             }
             // Lo recolocamos en la pila...
-            getStack().push(expr);
+            push(REGISTER, emit(Instruction.at(type, registers++, expr, weekdays, days)));
         }
     }
 
@@ -332,38 +510,48 @@ public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
         TerminalNode tn = ctx.getChild(TerminalNode.class,0);
         int numberType = tn.getSymbol().getType();
         if(numberType == DateExpressionGrammarParser.NUMBER) {
-            getStack().push(Integer.parseInt(tn.getText()));
+            String text = tn.getText();
+            try {
+                push(DAY, Integer.parseInt(text));
+            } catch(NumberFormatException e) {
+                // Sólo son dígitos, luego no cabe en un entero
+                long value = text.length() > 18 ? Long.MAX_VALUE : Long.parseLong(text);
+                throw abort(new DateExpressionLimitException(DateExpressionLimitException.Limit.NUMBER,
+                                                             Integer.MAX_VALUE, value));
+            }
         } else if(numberType == DateExpressionGrammarParser.Last || numberType == DateExpressionGrammarParser.Yesterday) {
-            getStack().push(-1); // Construcciones espeicales del DatExpression
+            push(DAY, -1); // Construcciones espeicales del DatExpression
         } else if(numberType == DateExpressionGrammarParser.Prelast) {
-            getStack().push(-2); // Construcciones espeicales del DatExpression
+            push(DAY, -2); // Construcciones espeicales del DatExpression
         } else {
             // Nos basamos en que son consecutivos desde el 1, no es que me "guste"
             // mucho, pero un switch de 32 valores es infumable.
-            getStack().push(numberType - DateExpressionGrammarParser.One  +1);
+            push(DAY, numberType - DateExpressionGrammarParser.One  +1);
         }
 
     }
 
     @Override
     public void exitWeekday(DateExpressionGrammarParser.WeekdayContext ctx) {
-        if(ctx.baseDay()!=null) return;
-        getStack().push(DayQualifierType.decode(ctx.getChild(TerminalNode.class,0)));
+        TerminalNode tn = ctx.getChild(TerminalNode.class,0);
+        // Sin token propio es un baseDay, que ya está procesado
+        if(tn == null) return;
+        push(QUALIFIER, DayQualifierType.decode(tn).ordinal());
     }
 
     @Override
     public void exitBaseDay(DateExpressionGrammarParser.BaseDayContext ctx) {
         TerminalNode tn = ctx.getChild(TerminalNode.class,0);
-        getStack().push(DayQualifierType.decode(tn));
+        push(QUALIFIER, DayQualifierType.decode(tn).ordinal());
     }
 
     @Override
     public void exitAtom(DateExpressionGrammarParser.AtomContext ctx) {
-        if(ctx.month()!=null) {
-            // Ya esta procesado, volvemos.
+        TerminalNode tn = ctx.getChild(TerminalNode.class,0);
+        if(tn == null) {
+            // Sin token propio es un mes, ya esta procesado, volvemos.
             return;
         }
-        TerminalNode tn = ctx.getChild(TerminalNode.class,0);
         DateType dateType  = null;
         switch(tn.getSymbol().getType()) {
             case DateExpressionGrammarParser.HolyWeek:
@@ -388,13 +576,19 @@ public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
                 dateType = DateType.Easter;
                 break;
             case DateExpressionGrammarParser.ID:
-                Object o = dictionary.get(tn.getText());
-                if(o!=null) getStack().push(o);
+                String name = tn.getText();
+                Integer variable = dictionary == null ? null : dictionary.get(name);
+                if(variable != null && variable != -1) {
+                    push(REGISTER, variable);
+                } else if(DateResolverRegistry.getDefault().get(name) != null) {
+                    // Si no es una variable puede ser un átomo propio
+                    push(REGISTER, emit(Instruction.resolveNamed(registers++, name)));
+                }
                 break;
 
         }
         if(dateType != null) {
-            getStack().push(IDateResolver.getInstance(dateType).resolve(firstYear,years,fullWeeks,locale,zoneId));
+            push(REGISTER, emit(Instruction.resolve(registers++, dateType)));
         }
 
 
@@ -444,38 +638,86 @@ public class DateExpressionVisitor extends DateExpressionGrammarBaseListener {
 
         }
         if(dateType != null) {
-            getStack().push(IDateResolver.getInstance(dateType).resolve(firstYear,years,fullWeeks,locale,zoneId));
+            push(REGISTER, emit(Instruction.resolve(registers++, dateType)));
         }
     }
-    
-    Deque<Object> getStack() {
-        return globalStack.peek();
+
+    /**
+     * Añade un valor a la pila
+     */
+    private void push(int kind, int value) {
+        if(size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        kinds[size] = kind;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Emite una instrucción, que deja su resultado en un registro nuevo
+     *
+     * @return El registro con el resultado
+     */
+    private int emit(Instruction instruction) {
+        instructions.add(instruction);
+        return instruction.target;
     }
 
     /**
      * Sobrergamos estos dos métodos para gestionar la pila interna de llamadas
-     * por función, la entrada genera una nueva pila
+     * por función, la entrada abre un nuevo marco
      */
     @Override
     public void enterEveryRule(ParserRuleContext ctx) {
-        globalStack.push(new ArrayDeque<>());
+        if(depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        frames[depth++] = size;
     }
 
     /**
      * Sobrergamos estos dos métodos para gestionar la pila interna de llamadas
-     * por función, la salida obtiene de la pila actual el último valor y lo
-     * introduce en la pila de nivel superior
+     * por función, la salida obtiene del marco actual el último valor y lo
+     * deja en el marco de nivel superior
      */
     @Override
     public void exitEveryRule(ParserRuleContext ctx) {
-        Deque<Object> currentStack = globalStack.poll();
-        Deque<Object> parentStack = globalStack.peek();
-        if(parentStack!=null && currentStack!=null && currentStack.peek()!=null) {
-            Object returned = currentStack.poll();
-            parentStack.push(returned);
+        int base = frames[--depth];
+        if(size > base) {
+            kinds[base] = kinds[size - 1];
+            values[base] = values[size - 1];
+            size = base + 1;
         }
     }
 
+    @Override
+    public void enterDateExpr(DateExpressionGrammarParser.DateExprContext ctx) {
+        if(++nesting > limits.getMaxDepth()) {
+            throw abort(new DateExpressionLimitException(DateExpressionLimitException.Limit.DEPTH,
+                                                         limits.getMaxDepth(), nesting));
+        }
+    }
+
+    @Override
+    public void exitDateExpr(DateExpressionGrammarParser.DateExprContext ctx) {
+        nesting--;
+    }
+
+    /**
+     * Deja de recibir las notificaciones del analizador antes de lanzar la excepción de un límite,
+     * para que al deshacer las reglas en curso no se procesen reglas a medio analizar. El registro
+     * se recupera en {@link #reset}.
+     *
+     * @param e La excepción
+     * @return La misma excepción, para lanzarla
+     */
+    private DateExpressionLimitException abort(DateExpressionLimitException e) {
+        if(attached != null) attached.removeParseListener(this);
+        return e;
+    }
+
     @Override
     public void exitAprox(DateExpressionGrammarParser.AproxContext ctx) {
         this.approximate = true;
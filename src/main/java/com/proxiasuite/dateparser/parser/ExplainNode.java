@@ -0,0 +1,142 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * Nodo del árbol de operaciones de un {@link PlanExplanation}: una instrucción del plan con las
+ * fechas que ha recibido y producido cada año y el tiempo que ha tardado. Los hijos son los nodos
+ * de sus operandos, en el orden de la instrucción. Un registro que leen varias instrucciones (por
+ * ejemplo una definición usada dos veces) es el mismo nodo en todas ellas, y su tiempo se ha
+ * medido una única vez.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class ExplainNode {
+    private final Instruction instruction;
+    private final List<ExplainNode> children;
+    private final NavigableMap<Integer, Integer> inputDates;
+    private final NavigableMap<Integer, Integer> outputDates;
+    private final long nanos;
+
+    ExplainNode(Instruction instruction, ExplainNode[] children, NavigableMap<Integer, Integer> inputDates,
+                NavigableMap<Integer, Integer> outputDates, long nanos) {
+        this.instruction = instruction;
+        this.children = Collections.unmodifiableList(Arrays.asList(children));
+        this.inputDates = Collections.unmodifiableNavigableMap(inputDates);
+        this.outputDates = Collections.unmodifiableNavigableMap(outputDates);
+        this.nanos = nanos;
+    }
+
+    /**
+     * Instrucción del nodo
+     *
+     * @return La instrucción
+     */
+    public Instruction getInstruction() {
+        return instruction;
+    }
+
+    /**
+     * Tipo de operación
+     *
+     * @return El tipo de operación
+     */
+    public OperatorType getType() {
+        return instruction.type;
+    }
+
+    /**
+     * Argumentos constantes de la operación
+     *
+     * @return Los argumentos, vacío si no tiene
+     */
+    public String getArguments() {
+        return instruction.getArguments();
+    }
+
+    /**
+     * Nodos de los operandos
+     *
+     * @return Los nodos, vacío para las resoluciones de átomos
+     */
+    public List<ExplainNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * Fechas que recibe la operación cada año, sumando las de todos sus operandos
+     *
+     * @return El número de fechas por año, sólo los años con alguna fecha
+     */
+    public NavigableMap<Integer, Integer> getInputDates() {
+        return inputDates;
+    }
+
+    /**
+     * Fechas que produce la operación cada año
+     *
+     * @return El número de fechas por año, sólo los años con alguna fecha
+     */
+    public NavigableMap<Integer, Integer> getOutputDates() {
+        return outputDates;
+    }
+
+    /**
+     * Total de fechas que recibe la operación
+     *
+     * @return El número de fechas
+     */
+    public int getInputDateCount() {
+        return sum(inputDates);
+    }
+
+    /**
+     * Total de fechas que produce la operación
+     *
+     * @return El número de fechas
+     */
+    public int getOutputDateCount() {
+        return sum(outputDates);
+    }
+
+    /**
+     * Tiempo de la propia operación, sin el de sus operandos
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    private static int sum(NavigableMap<Integer, Integer> dates) {
+        int count = 0;
+        for(int c: dates.values()) count += c;
+        return count;
+    }
+}
@@ -0,0 +1,464 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.metrics.DateExpressionMetrics;
+import com.proxiasuite.dateparser.metrics.IDateExpressionMetrics;
+import com.proxiasuite.dateparser.resolver.DateType;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconocedor escrito a mano para las formas de expresión más habituales, que se prueba antes de la
+ * gramática para no pagar el analizador léxico y la simulación ATN de ANTLR:
+ *
+ * <ul>
+ *     <li>Un átomo: "enero", "semana santa", "carnaval"...</li>
+ *     <li>Días de un átomo: "uno de enero", "3 y 4 de julio"</li>
+ *     <li>Días de la semana de un átomo: "primer lunes de enero", "ultima semana de febrero",
+ *     "tercer fin de semana de agosto", "lunes de marzo"</li>
+ *     <li>Listas de las anteriores separadas por "y" o ",", con "aprox" opcional al principio</li>
+ * </ul>
+ *
+ * Genera exactamente el mismo plan que la gramática. Es conservador: ante cualquier palabra o forma
+ * que no conoce (identificadores, definiciones, condiciones, desplazamientos, periodos) devuelve
+ * nulo y la expresión se analiza con la gramática. Las palabras se reconocen completas, por lo que
+ * sólo acepta las que el analizador léxico de la gramática convierte en un único token.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class FastPathRecognizer {
+    /**
+     * Tipos de token
+     */
+    private static final int DAY = 0;
+    private static final int QUALIFIER = 1;
+    private static final int ATOM = 2;
+    private static final int AND = 3;
+    private static final int APROX = 4;
+    private static final int SKIP = 5;
+
+    /**
+     * Palabras que pueden empezar un token de varias palabras
+     */
+    private static final int WEEK = 6;
+    private static final int WEEKEND = 7;
+    private static final int WEDNESDAY = 8;
+    private static final int CORPUS = 9;
+    private static final int THIRTY = 10;
+
+    private static final Integer[] NO_DAYS = new Integer[0];
+    private static final DateType[] DATE_TYPES = DateType.values();
+    private static final DayQualifierType[] QUALIFIERS = DayQualifierType.values();
+
+    /**
+     * Palabras conocidas, con su tipo y su valor
+     */
+    private static final Map<String, int[]> WORDS = new HashMap<>();
+
+    /**
+     * Preposiciones que ignora la gramática
+     */
+    private static final String[] PREPOSITIONS = {"de", "del", "la", "el"};
+
+    static {
+        String[] months = {"enero", "febrero", "marzo", "abril", "mayo", "junio", "julio", "agosto",
+                           "septiembre", "octubre", "noviembre", "diciembre"};
+        DateType[] monthTypes = {DateType.January, DateType.February, DateType.March, DateType.April,
+                                 DateType.May, DateType.Jun, DateType.July, DateType.August, DateType.September,
+                                 DateType.October, DateType.November, DateType.December};
+        for(int m = 0; m < months.length; m++) {
+            word(months[m], ATOM, monthTypes[m].ordinal());
+        }
+        word("carnaval", ATOM, DateType.Carnival.ordinal());
+        word("pascua", ATOM, DateType.Easter.ordinal());
+        word("ascension", ATOM, DateType.Ascension.ordinal());
+        word("ascensión", ATOM, DateType.Ascension.ordinal());
+        word("pentecostes", ATOM, DateType.Pentecost.ordinal());
+        word("pentecostés", ATOM, DateType.Pentecost.ordinal());
+        word("corpus", CORPUS, DateType.CorpusChristi.ordinal());
+
+        word("lunes", QUALIFIER, DayQualifierType.Monday.ordinal());
+        word("martes", QUALIFIER, DayQualifierType.Tuesday.ordinal());
+        word("miercoles", WEDNESDAY, DayQualifierType.Wednesday.ordinal());
+        word("miércoles", WEDNESDAY, DayQualifierType.Wednesday.ordinal());
+        word("jueves", QUALIFIER, DayQualifierType.Thursday.ordinal());
+        word("viernes", QUALIFIER, DayQualifierType.Friday.ordinal());
+        word("sabado", QUALIFIER, DayQualifierType.Saturday.ordinal());
+        word("sábado", QUALIFIER, DayQualifierType.Saturday.ordinal());
+        word("domingo", QUALIFIER, DayQualifierType.Sunday.ordinal());
+        word("domingos", QUALIFIER, DayQualifierType.Sunday.ordinal());
+        word("semana", WEEK, DayQualifierType.Week.ordinal());
+        word("semanas", QUALIFIER, DayQualifierType.Week.ordinal());
+        word("quincena", QUALIFIER, DayQualifierType.Fortnight.ordinal());
+        word("quincenas", QUALIFIER, DayQualifierType.Fortnight.ordinal());
+        word("fin", WEEKEND, DayQualifierType.Weekend.ordinal());
+
+        // Días: ordinales con su género y número, y cardinales
+        String[] gender = {"o", "a", "os", "as"};
+        String[] ordinals = {null, "primer", "segund", "tercer", "cuart", "quint", "sext", "septim", "octav", "noven"};
+        String[] cardinals = {null, null, "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve",
+                              "diez", "once", "doce", "trece", "catorce", "quince", "dieciseis", "diecisiete",
+                              "dieciocho", "diecinueve", "veinte", "veintiuno", "veintidos", "veintitres",
+                              "veinticuatro", "veinticinco", "veintiseis", "veintisiete", "veintiocho",
+                              "veintinueve", null, "treintayuno"};
+        List<List<String>> units = new ArrayList<>();
+        units.add(null);
+        for(int n = 1; n < ordinals.length; n++) {
+            List<String> forms = new ArrayList<>();
+            // "primer" y "tercer" admiten la forma sin género
+            if(n == 1 || n == 3) forms.add(ordinals[n]);
+            for(String g: gender) forms.add(ordinals[n] + g);
+            units.add(forms);
+        }
+        for(int n = 1; n < ordinals.length; n++) {
+            for(String form: units.get(n)) {
+                word(form, DAY, n);
+            }
+        }
+        word("un", DAY, 1);
+        for(String g: gender) word("un" + g, DAY, 1);
+        String[] tens = {null, "decim", "vigesim", "trigesim"};
+        for(int t = 1; t < tens.length; t++) {
+            for(String g: gender) {
+                word(tens[t] + g, DAY, t * 10);
+                // Sólo hasta el trigésimo primero
+                int last = t == 3 ? 1 : ordinals.length - 1;
+                for(int n = 1; n <= last; n++) {
+                    for(String form: units.get(n)) {
+                        word(tens[t] + g + form, DAY, t * 10 + n);
+                    }
+                }
+            }
+        }
+        for(int n = 0; n < cardinals.length; n++) {
+            if(cardinals[n] != null) word(cardinals[n], DAY, n);
+        }
+        word("treinta", THIRTY, 30);
+        for(String accent: new String[]{"u", "ú"}) {
+            for(String g: gender) {
+                word(accent + "ltim" + g, DAY, -1);
+                word("pen" + accent + "ltim" + g, DAY, -2);
+            }
+        }
+        word("vispera", DAY, -1);
+        word("ayer", DAY, -1);
+
+        word("y", AND, 0);
+        word(",", AND, 0);
+        word("aprox", APROX, 0);
+        for(String p: PREPOSITIONS) word(p, SKIP, 0);
+        for(String d: new String[]{"dia", "dias", "día", "días"}) word(d, SKIP, 0);
+    }
+
+    private FastPathRecognizer() {
+    }
+
+    private static void word(String word, int kind, int value) {
+        WORDS.put(word, new int[]{kind, value});
+    }
+
+    /**
+     * Palabras conocidas por el reconocedor, sin las que dependen de las siguientes palabras
+     * ("semana santa", "fin de semana"...).
+     *
+     * @return Las palabras
+     */
+    static List<String> words() {
+        List<String> words = new ArrayList<>();
+        for(Map.Entry<String, int[]> e: WORDS.entrySet()) {
+            if(e.getValue()[0] < WEEK) words.add(e.getKey());
+        }
+        return words;
+    }
+
+    /**
+     * Compila una expresión si tiene una de las formas habituales, notificando el tiempo de
+     * compilación de las que reconoce
+     *
+     * @param expr    Texto con la expresión
+     * @param metrics El receptor de métricas, {@link DateExpressionMetrics#NONE} para no medir
+     * @return El plan, o nulo si la expresión no tiene una de las formas que conoce el reconocedor
+     */
+    public static DateExpressionPlan compile(String expr, IDateExpressionMetrics metrics) {
+        if(metrics == DateExpressionMetrics.NONE) {
+            return compile(expr);
+        }
+        long start = System.nanoTime();
+        DateExpressionPlan plan = compile(expr);
+        if(plan != null) {
+            metrics.onFastPath(expr, System.nanoTime() - start);
+        }
+        return plan;
+    }
+
+    /**
+     * Compila una expresión si tiene una de las formas habituales
+     *
+     * @param expr Texto con la expresión
+     * @return El plan, el mismo que genera la gramática, o nulo si la expresión no tiene una de las
+     *         formas que conoce el reconocedor
+     */
+    public static DateExpressionPlan compile(String expr) {
+        List<String> words = split(expr);
+        if(words == null || words.isEmpty()) return null;
+
+        // Traducimos las palabras a tokens, resolviendo los que ocupan varias palabras
+        int[] kinds = new int[words.size()];
+        int[] values = new int[words.size()];
+        int size = 0;
+        for(int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int[] token = WORDS.get(word);
+            int kind, value;
+            if(token != null) {
+                kind = token[0];
+                value = token[1];
+            } else if(isNumber(word)) {
+                kind = DAY;
+                value = Integer.parseInt(word);
+            } else {
+                return null;
+            }
+            switch(kind) {
+                case SKIP:
+                    continue;
+                case WEEK:
+                    // "semana santa" o semana
+                    if(follows(words, w + 1, "santa")) {
+                        if(!words.get(w + 1).equals("santa")) return null;
+                        kind = ATOM;
+                        value = DateType.HolyWeek.ordinal();
+                        w++;
+                    } else {
+                        kind = QUALIFIER;
+                    }
+                    break;
+                case WEEKEND:
+                    // Sólo "fin de semana", "fin" es un identificador
+                    if(!isPreposition(words, w + 1) || !is(words, w + 2, "semana")) return null;
+                    kind = QUALIFIER;
+                    w += 2;
+                    break;
+                case WEDNESDAY:
+                    // "miércoles de ceniza" o miércoles
+                    if(isPreposition(words, w + 1) && follows(words, w + 2, "ceniza")) {
+                        if(!words.get(w + 2).equals("ceniza")) return null;
+                        kind = ATOM;
+                        value = DateType.AshWednesday.ordinal();
+                        w += 2;
+                    } else {
+                        kind = QUALIFIER;
+                    }
+                    break;
+                case CORPUS:
+                    // "corpus" o "corpus christi"
+                    if(follows(words, w + 1, "christi")) {
+                        if(!words.get(w + 1).equals("christi")) return null;
+                        w++;
+                    }
+                    kind = ATOM;
+                    break;
+                case THIRTY:
+                    // "treinta y uno" es un único token
+                    if(is(words, w + 1, "y") && follows(words, w + 2, "uno")) {
+                        if(!words.get(w + 2).equals("uno")) return null;
+                        value = 31;
+                        w += 2;
+                    }
+                    kind = DAY;
+                    break;
+                default:
+                    break;
+            }
+            kinds[size] = kind;
+            values[size] = value;
+            size++;
+        }
+        return compile(kinds, values, size);
+    }
+
+    /**
+     * Reconoce la forma de la expresión y emite las mismas instrucciones que el visitante
+     */
+    private static DateExpressionPlan compile(int[] kinds, int[] values, int size) {
+        List<Instruction> instructions = new ArrayList<>();
+        int registers = 0;
+        boolean approximate = false;
+        int i = 0;
+        if(size > 0 && kinds[0] == APROX) {
+            approximate = true;
+            i++;
+        }
+        int[] periods = new int[size];
+        int count = 0;
+        while(true) {
+            // Días separados por "y"
+            int daysStart = i;
+            if(i < size && kinds[i] == DAY) {
+                i++;
+                while(i + 1 < size && kinds[i] == AND && kinds[i + 1] == DAY) i += 2;
+            }
+            int daysEnd = i;
+            // Días de la semana, varios separados por "y" sólo si hay días
+            int qualifiersStart = i;
+            if(i < size && kinds[i] == QUALIFIER) {
+                i++;
+                if(daysEnd > daysStart) {
+                    while(i + 1 < size && kinds[i] == AND && kinds[i + 1] == QUALIFIER) i += 2;
+                }
+            }
+            int qualifiersEnd = i;
+            if(i == size || kinds[i] != ATOM) return null;
+
+            int expr = registers++;
+            instructions.add(Instruction.resolve(expr, DATE_TYPES[values[i++]]));
+            instructions.add(Instruction.at(OperatorType.At, registers, expr, null, NO_DAYS));
+            expr = registers++;
+            if(daysEnd > daysStart || qualifiersEnd > qualifiersStart) {
+                instructions.add(at(registers, expr, kinds, values, daysStart, daysEnd, qualifiersStart, qualifiersEnd));
+                expr = registers++;
+            }
+            periods[count++] = expr;
+
+            if(i == size) break;
+            // Otro periodo, separado por "y"
+            if(kinds[i] != AND || i + 1 == size) return null;
+            i++;
+        }
+
+        // Como la gramática, se combinan desde el último periodo
+        int expr = periods[count - 1];
+        for(int p = count - 2; p >= 0; p--) {
+            instructions.add(Instruction.binary(OperatorType.And, registers, expr, periods[p]));
+            expr = registers++;
+        }
+        return new DateExpressionPlan(instructions.toArray(new Instruction[0]), registers, expr, approximate);
+    }
+
+    /**
+     * Instrucción con los días y días de la semana de un átomo. Como en el visitante, los días y
+     * los días de la semana quedan en orden inverso al de la expresión.
+     */
+    private static Instruction at(int target, int expr, int[] kinds, int[] values,
+                                  int daysStart, int daysEnd, int qualifiersStart, int qualifiersEnd) {
+        int dayCount = (daysEnd - daysStart + 1) / 2;
+        Integer[] days = dayCount == 0 ? NO_DAYS : new Integer[dayCount];
+        for(int k = daysEnd - 1, d = 0; k >= daysStart; k--) {
+            if(kinds[k] == DAY) days[d++] = values[k];
+        }
+        boolean week = false, weekend = false, fortnight = false;
+        List<DayOfWeek> daysOfWeek = new ArrayList<>();
+        for(int k = qualifiersEnd - 1; k >= qualifiersStart; k--) {
+            if(kinds[k] != QUALIFIER) continue;
+            DayQualifierType qualifier = QUALIFIERS[values[k]];
+            if(qualifier == DayQualifierType.Week) week = true;
+            else if(qualifier == DayQualifierType.Weekend) weekend = true;
+            else if(qualifier == DayQualifierType.Fortnight) fortnight = true;
+            if(qualifier.dayOfWeek != null) daysOfWeek.add(qualifier.dayOfWeek);
+        }
+        if(qualifiersEnd == qualifiersStart) {
+            return Instruction.at(OperatorType.At, target, expr, null, days);
+        } else if(week) {
+            return Instruction.at(OperatorType.AtWeek, target, expr, null, days);
+        } else if(weekend) {
+            return Instruction.at(OperatorType.AtWeekend, target, expr, null, days);
+        } else if(fortnight) {
+            return Instruction.at(OperatorType.AtFortnight, target, expr, null, days);
+        }
+        return Instruction.at(OperatorType.AtWeekdays, target, expr, daysOfWeek.toArray(new DayOfWeek[0]), days);
+    }
+
+    /**
+     * Divide la expresión en palabras en minúsculas y comas. Devuelve nulo si encuentra un carácter
+     * que no puede formar parte de una palabra conocida.
+     */
+    private static List<String> split(String expr) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for(int k = 0, length = expr.length(); k <= length; k++) {
+            char c = k == length ? ' ' : expr.charAt(k);
+            if(c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == ',') {
+                if(word.length() > 0) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+                if(c == ',') words.add(",");
+            } else {
+                char lower = lower(c);
+                if(lower == 0) return null;
+                word.append(lower);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Carácter en minúsculas, o 0 si no es una letra o un dígito de las palabras conocidas
+     */
+    private static char lower(char c) {
+        if((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) return c;
+        if(c >= 'A' && c <= 'Z') return (char) (c + ('a' - 'A'));
+        switch(c) {
+            case 'á': case 'é': case 'í': case 'ó': case 'ú':
+                return c;
+            case 'Á': case 'É': case 'Í': case 'Ó': case 'Ú':
+                return (char) (c + ('á' - 'Á'));
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isNumber(String word) {
+        // Los números muy largos los deja la gramática, que los rechaza con DateExpressionLimitException
+        if(word.length() > 9) return false;
+        for(int k = 0; k < word.length(); k++) {
+            if(word.charAt(k) < '0' || word.charAt(k) > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean is(List<String> words, int w, String word) {
+        return w < words.size() && words.get(w).equals(word);
+    }
+
+    /**
+     * Si la palabra empieza por el texto, en cuyo caso el analizador léxico prueba el token de
+     * varias palabras
+     */
+    private static boolean follows(List<String> words, int w, String prefix) {
+        return w < words.size() && words.get(w).startsWith(prefix);
+    }
+
+    private static boolean isPreposition(List<String> words, int w) {
+        for(String p: PREPOSITIONS) {
+            if(is(words, w, p)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cachés DFA del analizador léxico y sintáctico de la gramática, con un tamaño máximo.
+ *
+ * Las clases generadas por ANTLR comparten unas cachés estáticas que crecen sin límite con cada
+ * forma nueva de expresión. Los analizadores registrados con {@link #install} usan en su lugar las
+ * cachés de esta instancia, cuyo tamaño (el número de estados DFA) se puede consultar y que se
+ * vacían al superar el máximo con {@link #trim}, o cuando se quiera con {@link #clear}, por
+ * ejemplo de forma periódica. Tras vaciarlas, las formas de expresión más usadas vuelven a estar
+ * en la caché en cuanto se analizan de nuevo.
+ *
+ * {@link #getDefault()} es la caché de toda la librería. Se pueden crear otras, por ejemplo una por
+ * cliente, para que las expresiones de uno no desplacen las del resto. Es segura para uso
+ * concurrente: los analizadores que estaban en marcha al vaciar la caché terminan con las tablas
+ * anteriores.
+ *
+ * ANTLR añade los estados nuevos a las tablas DFA con bloqueos, que con muchos hilos analizando a
+ * la vez se convierten en un cuello de botella. Para evitarlo la caché se puede repartir en varias
+ * particiones, cada una con sus propias tablas, y cada hilo usa siempre la misma partición. Con
+ * tantas particiones como hilos no hay contención, a cambio de que cada partición se llene por
+ * separado.
+ *
+ * Contar los estados recorre las tablas de todas las particiones, así que tras cada análisis no se
+ * cuentan: {@link #afterParse} sólo comprueba el tamaño cada {@link #TRIM_INTERVAL} análisis de la
+ * partición, por lo que la caché puede superar el máximo con los estados de esos análisis.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class GrammarDfaCache {
+    /**
+     * Número máximo de estados de la caché por defecto
+     */
+    public static final int DEFAULT_MAX_STATES = 20000;
+
+    /**
+     * Número de análisis de una partición entre dos comprobaciones del tamaño
+     */
+    public static final int TRIM_INTERVAL = 64;
+
+    private static volatile GrammarDfaCache defaultCache = new GrammarDfaCache(DEFAULT_MAX_STATES);
+
+    /**
+     * Tablas de una generación de la caché
+     */
+    private static final class Tables {
+        private final DFA[] lexer = dfa(DateExpressionGrammarLexer._ATN);
+        private final DFA[] parser = dfa(DateExpressionGrammarParser._ATN);
+        private final PredictionContextCache lexerContexts = new PredictionContextCache();
+        private final PredictionContextCache parserContexts = new PredictionContextCache();
+        private final AtomicInteger parses = new AtomicInteger();
+
+        private static DFA[] dfa(ATN atn) {
+            DFA[] dfa = new DFA[atn.getNumberOfDecisions()];
+            for(int i = 0; i < dfa.length; i++) {
+                dfa[i] = new DFA(atn.getDecisionState(i), i);
+            }
+            return dfa;
+        }
+    }
+
+    /**
+     * Número máximo de estados
+     */
+    private final int maxStates;
+
+    /**
+     * Tablas actuales de cada partición
+     */
+    private volatile Tables[] shards;
+
+    /**
+     * Veces que se ha vaciado la caché
+     */
+    private volatile long clearCount;
+
+    /**
+     * Constructor
+     *
+     * @param maxStates Número máximo de estados DFA antes de vaciar la caché
+     */
+    public GrammarDfaCache(int maxStates) {
+        this(maxStates, 1);
+    }
+
+    /**
+     * Constructor de una caché repartida en particiones
+     *
+     * @param maxStates Número máximo de estados DFA, entre todas las particiones, antes de vaciar la caché
+     * @param shards    Número de particiones
+     */
+    public GrammarDfaCache(int maxStates, int shards) {
+        if(maxStates <= 0) {
+            throw new IllegalArgumentException("El número máximo de estados debe ser positivo: " + maxStates);
+        }
+        if(shards <= 0) {
+            throw new IllegalArgumentException("El número de particiones debe ser positivo: " + shards);
+        }
+        this.maxStates = maxStates;
+        this.shards = tables(shards);
+    }
+
+    /**
+     * Caché con una partición por procesador, para muchos hilos analizando a la vez
+     *
+     * @param maxStates Número máximo de estados DFA, entre todas las particiones
+     * @return La nueva caché
+     */
+    public static GrammarDfaCache perProcessor(int maxStates) {
+        return new GrammarDfaCache(maxStates, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * La caché de toda la librería, que usa {@link com.proxiasuite.dateparser.DateExpression#parse}
+     *
+     * @return La caché por defecto
+     */
+    public static GrammarDfaCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Cambia la caché de toda la librería, por ejemplo por una con particiones
+     *
+     * @param cache La nueva caché por defecto
+     */
+    public static void setDefault(GrammarDfaCache cache) {
+        defaultCache = Objects.requireNonNull(cache);
+    }
+
+    /**
+     * Hace que un analizador léxico y uno sintáctico usen las tablas actuales de la caché
+     *
+     * @param lexer  El analizador léxico
+     * @param parser El analizador sintáctico
+     */
+    public void install(DateExpressionGrammarLexer lexer, DateExpressionGrammarParser parser) {
+        install(lexer, parser, shard());
+    }
+
+    /**
+     * Llena las tablas de todas las particiones analizando las expresiones indicadas, de forma que
+     * cualquier hilo encuentra en su partición las formas de expresión del corpus
+     *
+     * @param corpus Las expresiones con las que calentamos
+     */
+    public void warmUp(Collection<String> corpus) {
+        for(Tables current: shards) {
+            DateExpressionGrammarLexer lexer = new DateExpressionGrammarLexer(CharStreams.fromString(""));
+            DateExpressionGrammarParser parser = new DateExpressionGrammarParser(new CommonTokenStream(lexer));
+            // Las expresiones inválidas del corpus no deben escribir en la consola
+            lexer.removeErrorListeners();
+            parser.removeErrorListeners();
+            install(lexer, parser, current);
+            for(String expr: corpus) {
+                lexer.setInputStream(CharStreams.fromString(expr));
+                parser.setTokenStream(new CommonTokenStream(lexer));
+                parser.prog();
+            }
+        }
+    }
+
+    private static void install(DateExpressionGrammarLexer lexer, DateExpressionGrammarParser parser, Tables current) {
+        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), current.lexer, current.lexerContexts));
+        parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), current.parser, current.parserContexts));
+    }
+
+    /**
+     * Si un analizador usa las tablas actuales, o se ha vaciado la caché desde que se registró
+     *
+     * @param parser El analizador sintáctico
+     * @return Si usa las tablas actuales
+     */
+    public boolean isInstalled(DateExpressionGrammarParser parser) {
+        return parser.getInterpreter().decisionToDFA == shard().parser;
+    }
+
+    /**
+     * Número de estados DFA de la caché
+     *
+     * @return El número de estados del analizador léxico y del sintáctico
+     */
+    public int size() {
+        int size = 0;
+        for(Tables current: shards) {
+            size += states(current.lexer) + states(current.parser);
+        }
+        return size;
+    }
+
+    /**
+     * Anota un análisis del hilo actual y, cada {@link #TRIM_INTERVAL} análisis de su partición,
+     * vacía la caché si supera el número máximo de estados
+     *
+     * @return Si se ha vaciado
+     */
+    public boolean afterParse() {
+        if(shard().parses.incrementAndGet() % TRIM_INTERVAL != 0) return false;
+        return trim();
+    }
+
+    /**
+     * Vacía la caché si supera el número máximo de estados
+     *
+     * @return Si se ha vaciado
+     */
+    public boolean trim() {
+        if(size() <= maxStates) return false;
+        clear();
+        return true;
+    }
+
+    /**
+     * Vacía la caché. Los analizadores registrados pasan a usar las tablas nuevas al volver a
+     * registrarlos con {@link #install}.
+     */
+    public synchronized void clear() {
+        shards = tables(shards.length);
+        clearCount++;
+    }
+
+    /**
+     * Número máximo de estados
+     *
+     * @return El número máximo de estados DFA
+     */
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    /**
+     * Número de particiones
+     *
+     * @return El número de particiones
+     */
+    public int getShards() {
+        return shards.length;
+    }
+
+    /**
+     * Veces que se ha vaciado la caché
+     *
+     * @return El número de vaciados
+     */
+    public long getClearCount() {
+        return clearCount;
+    }
+
+    /**
+     * Tablas de la partición del hilo actual
+     */
+    private Tables shard() {
+        Tables[] current = shards;
+        return current.length == 1 ? current[0] : current[(int) (Thread.currentThread().getId() % current.length)];
+    }
+
+    private static Tables[] tables(int count) {
+        Tables[] tables = new Tables[count];
+        for(int i = 0; i < count; i++) {
+            tables[i] = new Tables();
+        }
+        return tables;
+    }
+
+    private static int states(DFA[] dfa) {
+        int states = 0;
+        for(DFA d: dfa) {
+            // ANTLR añade los estados bloqueando el mapa
+            synchronized (d.states) {
+                states += d.states.size();
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.resolver.DateType;
+
+import java.time.DayOfWeek;
+import java.time.temporal.TemporalUnit;
+import java.util.Arrays;
+
+/**
+ * Instrucción de un plan de ejecución. Cada instrucción lee sus operandos de los registros del
+ * plan y deja el resultado en un registro nuevo. Los argumentos constantes (días, días de la
+ * semana, cantidades, unidades) se resuelven al compilar y se guardan en la propia instrucción.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class Instruction {
+    private static final int[] NO_OPERANDS = new int[0];
+
+    final OperatorType type;
+    final int target;
+    final int[] operands;
+    final DateType dateType;
+    final String name;
+    final Integer[] days;
+    final DayOfWeek[] daysOfWeek;
+    final DayOfWeek dayOfWeek;
+    final int amount;
+    final TemporalUnit unit;
+    final DateExpression.Opcode opcode;
+
+    private Instruction(OperatorType type, int target, int[] operands, DateType dateType, String name,
+                        Integer[] days, DayOfWeek[] daysOfWeek, DayOfWeek dayOfWeek, int amount,
+                        TemporalUnit unit, DateExpression.Opcode opcode) {
+        this.type = type;
+        this.target = target;
+        this.operands = operands;
+        this.dateType = dateType;
+        this.name = name;
+        this.days = days;
+        this.daysOfWeek = daysOfWeek;
+        this.dayOfWeek = dayOfWeek;
+        this.amount = amount;
+        this.unit = unit;
+        this.opcode = opcode;
+    }
+
+    static Instruction resolve(int target, DateType dateType) {
+        return new Instruction(OperatorType.Resolve, target, NO_OPERANDS, dateType, null, null, null, null, 0, null, null);
+    }
+
+    static Instruction resolveNamed(int target, String name) {
+        return new Instruction(OperatorType.ResolveNamed, target, NO_OPERANDS, null, name, null, null, null, 0, null, null);
+    }
+
+    static Instruction at(OperatorType type, int target, int operand, DayOfWeek[] daysOfWeek, Integer[] days) {
+        return new Instruction(type, target, new int[]{operand}, null, null, days, daysOfWeek, null, 0, null, null);
+    }
+
+    static Instruction shift(OperatorType type, int target, int operand, int amount, TemporalUnit unit, DayOfWeek dayOfWeek) {
+        return new Instruction(type, target, new int[]{operand}, null, null, null, null, dayOfWeek, amount, unit, null);
+    }
+
+    static Instruction binary(OperatorType type, int target, int first, int second) {
+        return new Instruction(type, target, new int[]{first, second}, null, null, null, null, null, 0, null, null);
+    }
+
+    static Instruction compare(int target, int main, int compared, int onTruthy, int onFalsy, DateExpression.Opcode opcode) {
+        return new Instruction(OperatorType.Compare, target, new int[]{main, compared, onTruthy, onFalsy},
+                               null, null, null, null, null, 0, null, opcode);
+    }
+
+    /**
+     * Tipo de operación
+     *
+     * @return El tipo de operación
+     */
+    public OperatorType getType() {
+        return type;
+    }
+
+    /**
+     * Registro en el que se deja el resultado
+     *
+     * @return El índice del registro
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Registros de los que se leen los operandos
+     *
+     * @return Los índices de los registros
+     */
+    public int[] getOperands() {
+        return operands.clone();
+    }
+
+    /**
+     * Argumentos constantes de la instrucción (tipo de fecha, días, cantidades...), sin los operandos
+     *
+     * @return Los argumentos separados por espacios, vacío si no tiene
+     */
+    public String getArguments() {
+        StringBuilder sb = new StringBuilder();
+        if(dateType != null) sb.append(' ').append(dateType);
+        if(name != null) sb.append(' ').append(name);
+        if(daysOfWeek != null) sb.append(' ').append(Arrays.toString(daysOfWeek));
+        if(days != null) sb.append(' ').append(Arrays.toString(days));
+        if(dayOfWeek != null) sb.append(' ').append(dayOfWeek);
+        if(unit != null) sb.append(' ').append(amount).append(' ').append(unit);
+        else if(type == OperatorType.BeforeDay || type == OperatorType.AfterDay ||
+                type == OperatorType.BeforeWeekend || type == OperatorType.AfterWeekend) sb.append(' ').append(amount);
+        if(opcode != null) sb.append(' ').append(opcode);
+        return sb.length() == 0 ? "" : sb.substring(1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('r').append(target).append(" = ").append(type);
+        for(int operand: operands) {
+            sb.append(" r").append(operand);
+        }
+        String arguments = getArguments();
+        if(!arguments.isEmpty()) sb.append(' ').append(arguments);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+/**
+ * Operaciones de un plan de ejecución {@link DateExpressionPlan}
+ *
+ * @author David Rodríguez Alfayate
+ */
+public enum OperatorType {
+    /**
+     * Fechas de un tipo de fecha (mes, semana santa...)
+     */
+    Resolve,
+
+    /**
+     * Fechas de un átomo propio
+     */
+    ResolveNamed,
+
+    /**
+     * Días concretos de una expresión
+     */
+    At,
+
+    /**
+     * Días de la semana concretos de una expresión
+     */
+    AtWeekdays,
+
+    /**
+     * Semanas concretas de una expresión
+     */
+    AtWeek,
+
+    /**
+     * Fines de semana concretos de una expresión
+     */
+    AtWeekend,
+
+    /**
+     * Quincenas concretas de una expresión
+     */
+    AtFortnight,
+
+    /**
+     * Periodo entre dos expresiones
+     */
+    To,
+
+    /**
+     * Unión de dos expresiones
+     */
+    And,
+
+    /**
+     * Desplazamiento hacia atrás en una unidad de tiempo
+     */
+    Before,
+
+    /**
+     * Día de la semana anterior
+     */
+    BeforeDay,
+
+    /**
+     * Fin de semana anterior
+     */
+    BeforeWeekend,
+
+    /**
+     * Desplazamiento hacia delante en una unidad de tiempo
+     */
+    After,
+
+    /**
+     * Día de la semana posterior
+     */
+    AfterDay,
+
+    /**
+     * Fin de semana posterior
+     */
+    AfterWeekend,
+
+    /**
+     * Día de la semana más próximo
+     */
+    NearDay,
+
+    /**
+     * Fin de semana más próximo
+     */
+    NearWeekend,
+
+    /**
+     * Condicional si ... entonces ... si no
+     */
+    Compare
+}
@@ -0,0 +1,135 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Resultado de {@link DateExpressionPlan#explain}: el árbol de operaciones de la expresión, con las
+ * fechas que recibe y produce cada operación por año y el tiempo que ha tardado, junto con el
+ * resultado de la evaluación. Permite localizar qué parte de una regla es la costosa.
+ *
+ * {@link #toString()} lo muestra como texto, una operación por línea con sus operandos sangrados
+ * debajo, y {@link #getRoot()} da acceso a los mismos datos como objetos.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class PlanExplanation {
+    private final ExplainNode root;
+    private final DateExpression result;
+    private final int firstYear;
+    private final int years;
+    private final long nanos;
+
+    PlanExplanation(ExplainNode root, DateExpression result, int firstYear, int years, long nanos) {
+        this.root = root;
+        this.result = result;
+        this.firstYear = firstYear;
+        this.years = years;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Operación que produce el resultado
+     *
+     * @return El nodo raíz
+     */
+    public ExplainNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Resultado de la evaluación, el mismo que el de {@link DateExpressionPlan#evaluate}
+     *
+     * @return La expresión de fecha evaluada
+     */
+    public DateExpression getResult() {
+        return result;
+    }
+
+    /**
+     * Primer año evaluado
+     *
+     * @return El primer año
+     */
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    /**
+     * Número de años evaluados
+     *
+     * @return El número de años
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Tiempo de la evaluación completa
+     *
+     * @return El tiempo en nanosegundos
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d años desde %d, %.3f ms%n", years, firstYear, nanos / 1e6));
+        append(sb, root, 0, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return sb.toString();
+    }
+
+    /**
+     * Añade un nodo y sus operandos. Los nodos ya mostrados se indican sin volver a mostrar sus operandos.
+     */
+    private void append(StringBuilder sb, ExplainNode node, int depth, Set<ExplainNode> shown) {
+        for(int i = 0; i < depth; i++) sb.append("  ");
+        if(depth > 0) sb.append("-> ");
+        sb.append(node.getType());
+        if(!node.getArguments().isEmpty()) sb.append(' ').append(node.getArguments());
+        if(!shown.add(node)) {
+            sb.append(" (ya mostrado)").append(System.lineSeparator());
+            return;
+        }
+        sb.append(String.format(Locale.ROOT, "  (%.3f ms", node.getNanos() / 1e6));
+        if(!node.getChildren().isEmpty()) {
+            sb.append(String.format(Locale.ROOT, ", entrada %d fechas %.1f/año", node.getInputDateCount(),
+                                    (double) node.getInputDateCount() / years));
+        }
+        sb.append(String.format(Locale.ROOT, ", salida %d fechas %.1f/año)", node.getOutputDateCount(),
+                                (double) node.getOutputDateCount() / years));
+        sb.append(System.lineSeparator());
+        for(ExplainNode child: node.getChildren()) {
+            append(sb, child, depth + 1, shown);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionLimits;
+import com.proxiasuite.dateparser.resolver.DateResolverRegistry;
+import com.proxiasuite.dateparser.resolver.DateType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.DayOfWeek;
+import java.time.temporal.TemporalUnit;
+import java.time.temporal.WeekFields;
+
+/**
+ * Especializa un plan de ejecución en un árbol de {@link MethodHandle}s con los argumentos
+ * constantes de cada instrucción (días, días de la semana, cantidades, unidades) ya ligados, de
+ * forma que la evaluación no recorre las instrucciones ni consulta su tipo.
+ *
+ * Cada nodo del árbol recibe los registros compartidos y los argumentos de la evaluación (primer
+ * año, número de años, semanas completas y semana del idioma). Los registros que se leen más de
+ * una vez, como las definiciones, se calculan una única vez al principio de cada evaluación y se
+ * guardan en los registros compartidos; el resto se integran en el árbol de quien los usa. El
+ * resultado de cada nodo se comprueba con el límite de fechas de {@link DateExpressionLimits}.
+ *
+ * @author David Rodríguez Alfayate
+ */
+final class PlanSpecializer {
+    /**
+     * Argumentos de la evaluación de un plan
+     */
+    private static final MethodType EVALUATION = MethodType.methodType(DateExpression.class,
+            int.class, int.class, boolean.class, WeekFields.class);
+
+    /**
+     * Argumentos de cada nodo del árbol: los registros compartidos y los de la evaluación
+     */
+    private static final MethodType NODE = EVALUATION.insertParameterTypes(0, DateExpression[].class);
+
+    /**
+     * Posiciones de los argumentos de un nodo, para repetirlos en cada operando
+     */
+    private static final int NODE_ARITY = NODE.parameterCount();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle RESOLVE;
+    private static final MethodHandle RESOLVE_NAMED;
+    private static final MethodHandle AT;
+    private static final MethodHandle AT_WEEKDAYS;
+    private static final MethodHandle AT_WEEK;
+    private static final MethodHandle AT_WEEKEND;
+    private static final MethodHandle AT_FORTNIGHT;
+    private static final MethodHandle TO;
+    private static final MethodHandle AND;
+    private static final MethodHandle BEFORE;
+    private static final MethodHandle BEFORE_DAY;
+    private static final MethodHandle BEFORE_WEEKEND;
+    private static final MethodHandle AFTER;
+    private static final MethodHandle AFTER_DAY;
+    private static final MethodHandle AFTER_WEEKEND;
+    private static final MethodHandle NEAR_DAY;
+    private static final MethodHandle NEAR_WEEKEND;
+    private static final MethodHandle COMPARE;
+    private static final MethodHandle SHARED;
+    private static final MethodHandle GET_SHARED;
+    private static final MethodHandle SET_SHARED;
+    private static final MethodHandle CHECK_DATES;
+
+    static {
+        try {
+            Class<DateExpression> de = DateExpression.class;
+            RESOLVE = LOOKUP.findVirtual(DateResolverRegistry.class, "resolve", MethodType.methodType(de,
+                    DateType.class, int.class, int.class, boolean.class, WeekFields.class));
+            RESOLVE_NAMED = LOOKUP.findVirtual(DateResolverRegistry.class, "resolve", MethodType.methodType(de,
+                    String.class, int.class, int.class, boolean.class, WeekFields.class));
+            AT = virtual("at", Integer[].class);
+            AT_WEEKDAYS = virtual("at", DayOfWeek[].class, Integer[].class);
+            AT_WEEK = virtual("atWeek", Integer[].class);
+            AT_WEEKEND = virtual("atWeekend", Integer[].class);
+            AT_FORTNIGHT = virtual("atFortnight", Integer[].class);
+            TO = virtual("to", de);
+            AND = virtual("and", de);
+            BEFORE = virtual("before", long.class, TemporalUnit.class);
+            BEFORE_DAY = virtual("before", DayOfWeek.class, int.class);
+            BEFORE_WEEKEND = virtual("beforeWeekend", int.class);
+            AFTER = virtual("after", long.class, TemporalUnit.class);
+            AFTER_DAY = virtual("after", DayOfWeek.class, int.class);
+            AFTER_WEEKEND = virtual("afterWeekend", int.class);
+            NEAR_DAY = virtual("near", DayOfWeek.class);
+            NEAR_WEEKEND = virtual("nearWeekend");
+            COMPARE = virtual("compare", de, DateExpression.Opcode.class, de, de);
+            SHARED = LOOKUP.findStatic(PlanSpecializer.class, "shared",
+                                       MethodType.methodType(DateExpression[].class, int.class));
+            GET_SHARED = MethodHandles.arrayElementGetter(DateExpression[].class);
+            SET_SHARED = MethodHandles.arrayElementSetter(DateExpression[].class);
+            CHECK_DATES = LOOKUP.findStatic(PlanSpecializer.class, "checkDates",
+                                            MethodType.methodType(DateExpression.class, DateExpression.class));
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private PlanSpecializer() {
+    }
+
+    /**
+     * Especializa un plan
+     *
+     * @param instructions Instrucciones del plan
+     * @param registers    Número de registros
+     * @param result       Registro con el resultado
+     * @return Un manejador con los argumentos de la evaluación que devuelve el resultado, sin marcar
+     *         como aproximado
+     */
+    static MethodHandle specialize(Instruction[] instructions, int registers, int result) {
+        // El plan ya sólo tiene las instrucciones de las que depende el resultado: cada una es un nodo
+        // que se ejecuta una vez, como al interpretar
+        // Cuántas veces se lee cada registro
+        Instruction[] producers = new Instruction[registers];
+        int[] reads = new int[registers];
+        for(Instruction i: instructions) {
+            producers[i.target] = i;
+            for(int operand: i.operands) {
+                reads[operand]++;
+            }
+        }
+
+        // Los registros compartidos se guardan, en orden de ejecución, en su propia posición
+        MethodHandle[] nodes = new MethodHandle[registers];
+        int shared = 0;
+        for(Instruction i: instructions) {
+            if(reads[i.target] > 1) shared++;
+        }
+        MethodHandle[] stores = new MethodHandle[shared];
+        int slot = 0;
+        for(Instruction i: instructions) {
+            MethodHandle node = MethodHandles.filterReturnValue(node(i, nodes), CHECK_DATES);
+            if(reads[i.target] > 1) {
+                stores[slot] = store(slot, node);
+                node = MethodHandles.dropArguments(
+                        MethodHandles.insertArguments(GET_SHARED, 1, slot), 1, EVALUATION.parameterList());
+                slot++;
+            }
+            nodes[i.target] = node;
+        }
+
+        // Primero se calculan los registros compartidos y después el resultado
+        MethodHandle handle = nodes[result];
+        for(int k = stores.length - 1; k >= 0; k--) {
+            handle = MethodHandles.foldArguments(handle, stores[k]);
+        }
+        MethodHandle allocate = MethodHandles.dropArguments(
+                MethodHandles.insertArguments(SHARED, 0, shared), 0, EVALUATION.parameterList());
+        return MethodHandles.foldArguments(handle, allocate);
+    }
+
+    /**
+     * Construye el nodo de una instrucción a partir de los nodos de sus operandos
+     */
+    private static MethodHandle node(Instruction i, MethodHandle[] nodes) {
+        DateResolverRegistry registry = DateResolverRegistry.getDefault();
+        switch(i.type) {
+            case Resolve:
+                return MethodHandles.dropArguments(MethodHandles.insertArguments(RESOLVE, 0, registry, i.dateType),
+                                                   0, DateExpression[].class);
+            case ResolveNamed:
+                return MethodHandles.dropArguments(MethodHandles.insertArguments(RESOLVE_NAMED, 0, registry, i.name),
+                                                   0, DateExpression[].class);
+            case At:
+                return apply(MethodHandles.insertArguments(AT, 1, (Object) i.days), i, nodes);
+            case AtWeekdays:
+                return apply(MethodHandles.insertArguments(AT_WEEKDAYS, 1, i.daysOfWeek, i.days), i, nodes);
+            case AtWeek:
+                return apply(MethodHandles.insertArguments(AT_WEEK, 1, (Object) i.days), i, nodes);
+            case AtWeekend:
+                return apply(MethodHandles.insertArguments(AT_WEEKEND, 1, (Object) i.days), i, nodes);
+            case AtFortnight:
+                return apply(MethodHandles.insertArguments(AT_FORTNIGHT, 1, (Object) i.days), i, nodes);
+            case To:
+                return apply(TO, i, nodes);
+            case And:
+                return apply(AND, i, nodes);
+            case Before:
+                return apply(MethodHandles.insertArguments(BEFORE, 1, (long) i.amount, i.unit), i, nodes);
+            case BeforeDay:
+                return apply(MethodHandles.insertArguments(BEFORE_DAY, 1, i.dayOfWeek, i.amount), i, nodes);
+            case BeforeWeekend:
+                return apply(MethodHandles.insertArguments(BEFORE_WEEKEND, 1, i.amount), i, nodes);
+            case After:
+                return apply(MethodHandles.insertArguments(AFTER, 1, (long) i.amount, i.unit), i, nodes);
+            case AfterDay:
+                return apply(MethodHandles.insertArguments(AFTER_DAY, 1, i.dayOfWeek, i.amount), i, nodes);
+            case AfterWeekend:
+                return apply(MethodHandles.insertArguments(AFTER_WEEKEND, 1, i.amount), i, nodes);
+            case NearDay:
+                return apply(MethodHandles.insertArguments(NEAR_DAY, 1, i.dayOfWeek), i, nodes);
+            case NearWeekend:
+                return apply(NEAR_WEEKEND, i, nodes);
+            case Compare:
+                // El operador de comparación va entre el primer y el segundo operando
+                MethodHandle compare = MethodHandles.insertArguments(COMPARE, 2, i.opcode);
+                return apply(compare, i, nodes);
+            default:
+                throw new IllegalStateException("Operación no soportada: " + i.type);
+        }
+    }
+
+    /**
+     * Aplica una operación cuyos argumentos son sólo sus operandos a los nodos de los operandos,
+     * repitiendo en cada uno los argumentos del nodo
+     */
+    private static MethodHandle apply(MethodHandle operation, Instruction i, MethodHandle[] nodes) {
+        // Desde el último operando, para no desplazar la posición de los anteriores
+        MethodHandle collected = operation;
+        for(int k = i.operands.length - 1; k >= 0; k--) {
+            collected = MethodHandles.collectArguments(collected, k, nodes[i.operands[k]]);
+        }
+        int[] reorder = new int[NODE_ARITY * i.operands.length];
+        for(int k = 0; k < reorder.length; k++) {
+            reorder[k] = k % NODE_ARITY;
+        }
+        return MethodHandles.permuteArguments(collected, NODE, reorder);
+    }
+
+    /**
+     * Nodo que calcula un registro compartido y lo guarda en su posición
+     */
+    private static MethodHandle store(int slot, MethodHandle node) {
+        MethodHandle set = MethodHandles.collectArguments(MethodHandles.insertArguments(SET_SHARED, 1, slot), 1, node);
+        int[] reorder = new int[1 + NODE_ARITY];
+        for(int k = 1; k < reorder.length; k++) {
+            reorder[k] = k - 1;
+        }
+        return MethodHandles.permuteArguments(set, NODE.changeReturnType(void.class), reorder);
+    }
+
+    /**
+     * Comprueba el número de fechas del resultado de un nodo con los límites vigentes
+     */
+    private static DateExpression checkDates(DateExpression de) {
+        return DateExpressionLimits.getDefault().checkDates(de);
+    }
+
+    /**
+     * Registros compartidos de una evaluación
+     */
+    private static DateExpression[] shared(int count) {
+        return count == 0 ? null : new DateExpression[count];
+    }
+
+    /**
+     * Obtiene el manejador de un método de {@link DateExpression}
+     */
+    private static MethodHandle virtual(String name, Class<?> ... parameters) throws ReflectiveOperationException {
+        return LOOKUP.findVirtual(DateExpression.class, name, MethodType.methodType(DateExpression.class, parameters))
+                     .asFixedArity();
+    }
+}
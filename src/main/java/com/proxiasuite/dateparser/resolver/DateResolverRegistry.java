@@ -0,0 +1,202 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.resolver;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.metrics.FlightRecorderEvents;
+
+import java.time.LocalDate;
+import java.time.temporal.WeekFields;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de resolutores de fechas. Los resolutores de los {@link DateType} son instancias únicas
+ * sin estado, y los átomos propios se cargan mediante {@link IDateResolverProvider}.
+ *
+ * Las fechas de un átomo en un año concreto no cambian nunca ("marzo de 2031", "pentecostés de
+ * 2031"), así que se guardan en una caché por resolutor y año, compartida entre hilos. Las listas
+ * guardadas son inmutables.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class DateResolverRegistry {
+    /**
+     * Registro por defecto, con los proveedores del classpath
+     */
+    private static final DateResolverRegistry DEFAULT = new DateResolverRegistry(
+            ServiceLoader.load(IDateResolverProvider.class, DateResolverRegistry.class.getClassLoader()));
+
+    /**
+     * Resolutores de los tipos de fecha
+     */
+    private final Map<DateType, IDateResolver> resolvers = new EnumMap<>(DateType.class);
+
+    /**
+     * Resolutores de los átomos propios, por nombre en minúsculas
+     */
+    private final Map<String, IDateResolver> atoms = new HashMap<>();
+
+    /**
+     * Fechas de cada resolutor y año
+     */
+    private final Map<IDateResolver, Map<Integer, List<LocalDate>>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor, registra los tipos de fecha y los átomos de los proveedores
+     *
+     * @param providers Proveedores de átomos propios
+     */
+    public DateResolverRegistry(Iterable<IDateResolverProvider> providers) {
+        resolvers.put(DateType.HolyWeek, new HolyWeekResolver());
+        resolvers.put(DateType.Carnival, new CarnivalResolver());
+        resolvers.put(DateType.AshWednesday, new AshWednesdayResolver());
+        resolvers.put(DateType.CorpusChristi, new CorpusChristiResolver());
+        resolvers.put(DateType.Ascension, new AscensionResolver());
+        resolvers.put(DateType.Pentecost, new PentecostResolver());
+        resolvers.put(DateType.Easter, new EasterResolver());
+        for(DateType dateType: DateType.values()) {
+            if(dateType.asMonth() != null) {
+                resolvers.put(dateType, new MonthResolver(dateType.asMonth()));
+            }
+        }
+        for(IDateResolverProvider provider: providers) {
+            provider.getResolvers().forEach((name, resolver)->atoms.put(name.toLowerCase(Locale.ROOT), resolver));
+        }
+    }
+
+    /**
+     * Registro por defecto, con los átomos de los proveedores del classpath
+     *
+     * @return El registro
+     */
+    public static DateResolverRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Resolutor de un tipo de fecha
+     *
+     * @param dateType El tipo de fecha
+     * @return El resolutor, siempre la misma instancia
+     */
+    public IDateResolver get(DateType dateType) {
+        return resolvers.get(dateType);
+    }
+
+    /**
+     * Resolutor de un átomo propio
+     *
+     * @param name El nombre del átomo, sin distinguir mayúsculas
+     * @return El resolutor, nulo si no hay ningún átomo con ese nombre
+     */
+    public IDateResolver get(String name) {
+        return atoms.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Nombres de los átomos propios registrados
+     *
+     * @return Los nombres, en minúsculas
+     */
+    public Set<String> getAtomNames() {
+        return Collections.unmodifiableSet(atoms.keySet());
+    }
+
+    /**
+     * Resuelve un tipo de fecha para un conjunto de años usando la caché
+     *
+     * @param dateType    El tipo de fecha
+     * @param startAtYear El primer año
+     * @param years       El número de años
+     * @param fullWeeks   Si computamos la semana como semana completa.
+     * @param locale      El idioma del usuario
+     * @return Las fechas de los años pedidos
+     */
+    public DateExpression resolve(DateType dateType, int startAtYear, int years, boolean fullWeeks, Locale locale) {
+        return resolve(dateType, startAtYear, years, fullWeeks, WeekFields.of(locale));
+    }
+
+    /**
+     * Resuelve un tipo de fecha para un conjunto de años usando la caché
+     *
+     * @param dateType    El tipo de fecha
+     * @param startAtYear El primer año
+     * @param years       El número de años
+     * @param fullWeeks   Si computamos la semana como semana completa.
+     * @param week        La semana del idioma del usuario
+     * @return Las fechas de los años pedidos
+     */
+    public DateExpression resolve(DateType dateType, int startAtYear, int years, boolean fullWeeks, WeekFields week) {
+        return resolve(dateType.name(), get(dateType), startAtYear, years, fullWeeks, week);
+    }
+
+    /**
+     * Resuelve un átomo propio para un conjunto de años usando la caché
+     *
+     * @param name        El nombre del átomo
+     * @param startAtYear El primer año
+     * @param years       El número de años
+     * @param fullWeeks   Si computamos la semana como semana completa.
+     * @param locale      El idioma del usuario
+     * @return Las fechas de los años pedidos, nulo si no hay ningún átomo con ese nombre
+     */
+    public DateExpression resolve(String name, int startAtYear, int years, boolean fullWeeks, Locale locale) {
+        return resolve(name, startAtYear, years, fullWeeks, WeekFields.of(locale));
+    }
+
+    /**
+     * Resuelve un átomo propio para un conjunto de años usando la caché
+     *
+     * @param name        El nombre del átomo
+     * @param startAtYear El primer año
+     * @param years       El número de años
+     * @param fullWeeks   Si computamos la semana como semana completa.
+     * @param week        La semana del idioma del usuario
+     * @return Las fechas de los años pedidos, nulo si no hay ningún átomo con ese nombre
+     */
+    public DateExpression resolve(String name, int startAtYear, int years, boolean fullWeeks, WeekFields week) {
+        IDateResolver resolver = get(name);
+        return resolver == null ? null : resolve(name, resolver, startAtYear, years, fullWeeks, week);
+    }
+
+    /**
+     * Descarta las fechas guardadas en la caché
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private DateExpression resolve(String name, IDateResolver resolver, int startAtYear, int years, boolean fullWeeks,
+                                   WeekFields week) {
+        Object event = FlightRecorderEvents.beginResolve();
+        Map<Integer, List<LocalDate>> byYear = cache.computeIfAbsent(resolver, r->new ConcurrentHashMap<>());
+        List<LocalDate> dates = new ArrayList<>();
+        for(int year = startAtYear; year < startAtYear + years; year++) {
+            dates.addAll(byYear.computeIfAbsent(year, y->Collections.unmodifiableList(new ArrayList<>(resolver.resolveYear(y)))));
+        }
+        FlightRecorderEvents.endResolve(event, name, startAtYear, years, dates.size());
+        return new DateExpression(week, fullWeeks, dates);
+    }
+}
@@ -25,8 +25,11 @@ package com.proxiasuite.dateparser.resolver;
 
 import com.proxiasuite.dateparser.DateExpression;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -48,8 +51,23 @@ public interface IDateResolver {
      * @return  Un conjunto de fechas que se corresponden con la resolución de la expresión actual;
      */
     default DateExpression resolve(int years, boolean fullWeeks, Locale locale, ZoneId zoneId) {
-        LocalDate ld = LocalDate.now(zoneId);
-        return resolve(ld.getYear(),years,fullWeeks,locale,zoneId);
+        return resolve(years,fullWeeks,locale,Clock.system(zoneId));
+    }
+
+    /**
+     * Método que permite resolver las fechas que tenemos vinculadas a este resolutor de fechas a partir
+     * del año actual según el reloj indicado, que se consulta una única vez.
+     *
+     * @param years     El número de años para el que vamos a resolver fechas
+     * @param fullWeeks Si computamos la semana como semana completa.
+     * @param locale    El idioma del usuario
+     * @param clock     El reloj del que obtenemos el año actual y la zona horaria
+     *
+     * @return  Un conjunto de fechas que se corresponden con la resolución de la expresión actual;
+     */
+    default DateExpression resolve(int years, boolean fullWeeks, Locale locale, Clock clock) {
+        LocalDate ld = LocalDate.now(clock);
+        return resolve(ld.getYear(),years,fullWeeks,locale,clock.getZone());
     }
 
     /**
@@ -66,31 +84,25 @@ public interface IDateResolver {
      */
     DateExpression resolve(int startAtYear, int years, boolean fullWeeks, Locale locale, ZoneId zoneId);
 
+    /**
+     * Fechas de un único año. Es lo que se guarda en la caché de {@link DateResolverRegistry}, por
+     * lo que sólo debe depender del año.
+     *
+     * @param year  El año
+     * @return Las fechas de ese año, ordenadas
+     */
+    default List<LocalDate> resolveYear(int year) {
+        return resolve(year,1,true,Locale.ROOT,ZoneOffset.UTC).getDates();
+    }
+
     /**
      * Método estático que permite obtener la implementación del sistema de resolución de fechas para
-     * un determinado tipo de fecha concreto
+     * un determinado tipo de fecha concreto, siempre la misma instancia del registro por defecto
      *
      * @param dateType  El tipo de fecha
      * @return  Una instancia de un resolutor de fechas
      */
     static IDateResolver getInstance(DateType dateType) {
-        switch(dateType) {
-            case HolyWeek:
-                return new HolyWeekResolver();
-            case Carnival:
-                return new CarnivalResolver();
-            case AshWednesday:
-                return new AshWednesdayResolver();
-            case CorpusChristi:
-                return new CorpusChristiResolver();
-            case Ascension:
-                return new AscensionResolver();
-            case Pentecost:
-                return new PentecostResolver();
-            case Easter:
-                return new EasterResolver();
-            default:
-                return new MonthResolver(dateType.asMonth());
-        }
+        return DateResolverRegistry.getDefault().get(dateType);
     }
 }
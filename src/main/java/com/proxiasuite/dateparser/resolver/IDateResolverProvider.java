@@ -0,0 +1,50 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.resolver;
+
+import java.util.Map;
+
+/**
+ * Proveedor de átomos propios (festivos regionales, periodos fiscales...) que se registran mediante
+ * {@link java.util.ServiceLoader}, declarando la implementación en
+ * <code>META-INF/services/com.proxiasuite.dateparser.resolver.IDateResolverProvider</code>.
+ *
+ * Los átomos se usan en las expresiones por su nombre, como cualquier identificador, por lo que
+ * sólo pueden contener letras sin acentuar, '$' y '_'. Una definición con <code>def</code> del
+ * mismo nombre tiene prioridad sobre el átomo.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public interface IDateResolverProvider {
+    /**
+     * Resolutores de los átomos que aporta este proveedor.
+     *
+     * Las fechas de cada año se guardan en caché y se comparten entre hilos, así que los resolutores
+     * deben depender sólo del año ({@link IDateResolver#resolveYear(int)}), habitualmente una
+     * {@link TableResolver} con las fechas precalculadas.
+     *
+     * @return Los resolutores indexados por el nombre del átomo
+     */
+    Map<String, IDateResolver> getResolvers();
+}
@@ -41,10 +41,7 @@ import java.util.stream.Stream;
 public interface IEasterBaseResolver extends IDateResolver {
     @Override
     default DateExpression resolve(int startAtYear, int years, boolean fullWeeks, Locale locale, ZoneId zoneId) {
-        // Siempre devolvemos de año no pasado...
-        LocalDate now = LocalDate.now(zoneId).withYear(startAtYear);
-
-        IntStream range = IntStream.range(now.getYear(),now.getYear()+years);
+        IntStream range = IntStream.range(startAtYear,startAtYear+years);
 
         // Vamos a calcular ahora para todos los años las fechas de los domingos de ramos.
         return new DateExpression(locale,fullWeeks,range.mapToObj(year->resolvePivotDate(year,zoneId))
@@ -100,7 +97,6 @@ public interface IEasterBaseResolver extends IDateResolver {
 
         int month = N / 31;
         int day   = 1 + (N % 31);
-        LocalDate ld = LocalDate.now(zoneId);
-        return ld.withYear(year).withMonth(month).withDayOfMonth(day);
+        return LocalDate.of(year, month, day);
     }
 }
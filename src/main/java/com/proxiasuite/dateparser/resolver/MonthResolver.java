@@ -47,7 +47,7 @@ public class MonthResolver implements IDateResolver {
 
     @Override
     public DateExpression resolve(int startAtYear, int years, boolean fullWeeks, Locale locale, ZoneId zoneId) {
-        LocalDate selectedMonth = LocalDate.now(zoneId).withYear(startAtYear).withMonth(month.getValue());
+        LocalDate selectedMonth = LocalDate.of(startAtYear, month, 1);
 
         // Generamos los días completos.
         ArrayList<LocalDate> dates = new ArrayList<>();
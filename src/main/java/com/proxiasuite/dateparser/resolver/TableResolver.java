@@ -0,0 +1,66 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.resolver;
+
+import com.proxiasuite.dateparser.DateExpression;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Resolutor a partir de una tabla de fechas precalculadas, por ejemplo los festivos de una
+ * comunidad autónoma o los periodos fiscales de una empresa. Los años que no están en la tabla
+ * no tienen fechas.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class TableResolver implements IDateResolver {
+    /**
+     * Fechas de la tabla, por año
+     */
+    private final NavigableMap<Integer, List<LocalDate>> dates = new TreeMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param dates Las fechas de la tabla, en cualquier orden
+     */
+    public TableResolver(Collection<LocalDate> dates) {
+        new TreeSet<>(dates).forEach(ld->this.dates.computeIfAbsent(ld.getYear(), y->new ArrayList<>()).add(ld));
+        this.dates.replaceAll((y,l)->Collections.unmodifiableList(l));
+    }
+
+    @Override
+    public DateExpression resolve(int startAtYear, int years, boolean fullWeeks, Locale locale, ZoneId zoneId) {
+        List<LocalDate> all = new ArrayList<>();
+        dates.subMap(startAtYear, true, startAtYear + years - 1, true).values().forEach(all::addAll);
+        return new DateExpression(locale, fullWeeks, all);
+    }
+
+    @Override
+    public List<LocalDate> resolveYear(int year) {
+        return dates.getOrDefault(year, Collections.emptyList());
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planificador de tareas disparadas por expresiones de fecha.
+ *
+ * Mantiene todos los disparadores en una cola de prioridad ordenada por el siguiente disparo y programa
+ * en el {@link ScheduledExecutorService} un único despertar para el primero de ellos. Al despertar
+ * ejecuta las tareas vencidas y recalcula sólo el siguiente disparo de los disparadores que se acaban
+ * de ejecutar, con lo que miles de disparadores no suponen trabajo adicional mientras no vencen.
+ *
+ * El ejecutor pertenece al llamante, que es el responsable de pararlo.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionScheduler {
+    /**
+     * Tarea programada por un disparador, permite cancelarla
+     */
+    public final class ScheduledTrigger implements Comparable<ScheduledTrigger> {
+        /**
+         * El disparador
+         */
+        private final DateExpressionTrigger trigger;
+
+        /**
+         * La tarea que se ejecuta en cada disparo
+         */
+        private final Runnable task;
+
+        /**
+         * Orden de alta, para desempatar disparos simultáneos
+         */
+        private final long sequence;
+
+        /**
+         * El siguiente disparo
+         */
+        private ZonedDateTime nextFireTime;
+
+        private ScheduledTrigger(DateExpressionTrigger trigger, Runnable task, long sequence) {
+            this.trigger = trigger;
+            this.task = task;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Obtiene el disparador
+         *
+         * @return El disparador
+         */
+        public DateExpressionTrigger getTrigger() {
+            return trigger;
+        }
+
+        /**
+         * Obtiene el siguiente disparo programado
+         *
+         * @return El siguiente disparo, nulo si ya no se va a disparar más
+         */
+        public ZonedDateTime getNextFireTime() {
+            synchronized (DateExpressionScheduler.this) {
+                return nextFireTime;
+            }
+        }
+
+        /**
+         * Cancela los disparos pendientes de la tarea.
+         */
+        public void cancel() {
+            synchronized (DateExpressionScheduler.this) {
+                if(queue.remove(this)) {
+                    nextFireTime = null;
+                    reschedule();
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledTrigger o) {
+            int c = nextFireTime.toInstant().compareTo(o.nextFireTime.toInstant());
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * Ejecutor sobre el que se programa el despertar y se ejecutan las tareas
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Reloj con el que se decide qué tareas han vencido
+     */
+    private final Clock clock;
+
+    /**
+     * Tareas pendientes ordenadas por el siguiente disparo
+     */
+    private final PriorityQueue<ScheduledTrigger> queue = new PriorityQueue<>();
+
+    /**
+     * Contador de altas
+     */
+    private long sequence;
+
+    /**
+     * El despertar programado
+     */
+    private ScheduledFuture<?> wakeUp;
+
+    /**
+     * El instante para el que está programado el despertar
+     */
+    private Instant wakeUpAt;
+
+    /**
+     * Constructor, utiliza el reloj del sistema
+     *
+     * @param executor  Ejecutor sobre el que se programan las tareas
+     */
+    public DateExpressionScheduler(ScheduledExecutorService executor) {
+        this(executor, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param executor  Ejecutor sobre el que se programan las tareas
+     * @param clock     Reloj con el que se decide qué tareas han vencido
+     */
+    public DateExpressionScheduler(ScheduledExecutorService executor, Clock clock) {
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Programa una tarea para que se ejecute en cada disparo de un disparador
+     *
+     * @param trigger   El disparador
+     * @param task      La tarea a ejecutar
+     * @return La tarea programada, su siguiente disparo es nulo si el disparador no se va a disparar nunca
+     */
+    public synchronized ScheduledTrigger schedule(DateExpressionTrigger trigger, Runnable task) {
+        ScheduledTrigger st = new ScheduledTrigger(trigger, task, sequence++);
+        st.nextFireTime = trigger.nextFireTime(clock.instant());
+        if(st.nextFireTime != null) {
+            queue.add(st);
+            reschedule();
+        }
+        return st;
+    }
+
+    /**
+     * Número de tareas con disparos pendientes
+     *
+     * @return El número de tareas programadas
+     */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * Cancela todas las tareas programadas
+     */
+    public synchronized void cancelAll() {
+        for(ScheduledTrigger st: queue) {
+            st.nextFireTime = null;
+        }
+        queue.clear();
+        reschedule();
+    }
+
+    /**
+     * Ejecuta las tareas vencidas y recalcula su siguiente disparo
+     */
+    private synchronized void fire() {
+        wakeUp = null;
+        Instant now = clock.instant();
+        while(!queue.isEmpty() && !queue.peek().nextFireTime.toInstant().isAfter(now)) {
+            ScheduledTrigger st = queue.poll();
+            executor.execute(st.task);
+            // Sólo recalculamos el disparador que se acaba de ejecutar
+            st.nextFireTime = st.trigger.nextFireTime(now);
+            if(st.nextFireTime != null) queue.add(st);
+        }
+        reschedule();
+    }
+
+    /**
+     * Programa el despertar para la primera tarea de la cola, si no lo está ya
+     */
+    private void reschedule() {
+        ScheduledTrigger head = queue.peek();
+        Instant next = head == null ? null : head.nextFireTime.toInstant();
+        if(wakeUp != null) {
+            if(next != null && next.equals(wakeUpAt)) return;
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        if(next != null) {
+            long delay = Math.max(0, Duration.between(clock.instant(), next).toMillis());
+            wakeUpAt = next;
+            wakeUp = executor.schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
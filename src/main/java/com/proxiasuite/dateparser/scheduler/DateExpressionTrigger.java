@@ -0,0 +1,199 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.scheduler;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+
+import java.time.*;
+import java.time.temporal.WeekFields;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Disparador basado en una expresión de fecha: se dispara en cada una de las fechas de la expresión
+ * a una hora concreta del día en una zona horaria.
+ *
+ * El siguiente disparo se calcula de forma perezosa sobre una ventana de años de la expresión ya resuelta,
+ * y sólo se vuelve a evaluar la expresión, compilada una única vez, cuando la búsqueda se sale de esa
+ * ventana. La ventana se evalúa con margen a cada lado, tantos años como alcance la expresión
+ * ({@link DateExpressionPlan#getReachYears()}), para que los periodos que cruzan el cambio de año
+ * (por ejemplo del uno de diciembre al seis de enero) y los desplazamientos largos ("30 meses
+ * después del uno de enero") aparezcan completos.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public class DateExpressionTrigger {
+    /**
+     * Número de años útiles de cada ventana resuelta
+     */
+    private static final int WINDOW_YEARS = 2;
+
+    /**
+     * Número máximo de años que buscamos hacia delante antes de considerar que la expresión no
+     * vuelve a dispararse (el ciclo de días de la semana y años bisiestos se repite cada 28 años)
+     */
+    private static final int MAX_LOOKAHEAD_YEARS = 28;
+
+    /**
+     * La expresión de fecha
+     */
+    private final String expression;
+
+    /**
+     * Plan de ejecución de la expresión
+     */
+    private final DateExpressionPlan plan;
+
+    /**
+     * Idioma de trabajo
+     */
+    private final Locale locale;
+
+    /**
+     * Zona horaria en la que se interpretan las fechas y la hora
+     */
+    private final ZoneId zoneId;
+
+    /**
+     * Si las semanas se computan completas
+     */
+    private final boolean fullWeeks;
+
+    /**
+     * Hora del día a la que se dispara
+     */
+    private final LocalTime timeOfDay;
+
+    /**
+     * La ventana resuelta actualmente
+     */
+    private DateExpression window;
+
+    /**
+     * Primer año útil de la ventana resuelta
+     */
+    private int windowFirstYear;
+
+    /**
+     * Constructor, valida la expresión resolviendo la ventana del año en curso.
+     *
+     * @param expression    Texto con la expresión de fecha
+     * @param locale        El idioma asociado
+     * @param zoneId        La zona horaria
+     * @param fullWeeks     Si el computo de semanas es siempre de semana completa
+     * @param timeOfDay     La hora del día a la que se dispara
+     */
+    public DateExpressionTrigger(String expression, Locale locale, ZoneId zoneId, boolean fullWeeks, LocalTime timeOfDay) {
+        this(expression, locale, Clock.system(zoneId), fullWeeks, timeOfDay);
+    }
+
+    /**
+     * Constructor, valida la expresión resolviendo la ventana del año en curso según el reloj.
+     *
+     * @param expression    Texto con la expresión de fecha
+     * @param locale        El idioma asociado
+     * @param clock         Reloj del que se obtiene el año en curso, su zona es la del disparador
+     * @param fullWeeks     Si el computo de semanas es siempre de semana completa
+     * @param timeOfDay     La hora del día a la que se dispara
+     */
+    public DateExpressionTrigger(String expression, Locale locale, Clock clock, boolean fullWeeks, LocalTime timeOfDay) {
+        this.expression = expression;
+        this.locale = locale;
+        this.zoneId = clock.getZone();
+        this.fullWeeks = fullWeeks;
+        this.timeOfDay = timeOfDay;
+        this.plan = DateExpression.compile(expression);
+        if(plan == null) {
+            throw new IllegalArgumentException("Expresión de fecha no válida: " + expression);
+        }
+        window(LocalDate.now(clock).getYear());
+    }
+
+    /**
+     * Calcula el siguiente disparo estrictamente posterior a un instante. Si la hora no existe ese día
+     * por un cambio de horario se adelanta según {@link ZonedDateTime#of(LocalDate, LocalTime, ZoneId)}.
+     *
+     * @param after El instante de referencia
+     * @return El siguiente disparo, o nulo si la expresión no vuelve a dispararse
+     */
+    public synchronized ZonedDateTime nextFireTime(Instant after) {
+        LocalDate day = after.atZone(zoneId).toLocalDate();
+        for(int year = day.getYear(); year < day.getYear() + MAX_LOOKAHEAD_YEARS; year++) {
+            List<LocalDate> dates = window(year).getDates(year);
+            int index = 0;
+            if(year == day.getYear()) {
+                int pos = Collections.binarySearch(dates, day);
+                index = pos >= 0 ? pos : -pos - 1;
+            }
+            for(; index < dates.size(); index++) {
+                ZonedDateTime fire = ZonedDateTime.of(dates.get(index), timeOfDay, zoneId);
+                if(fire.toInstant().isAfter(after)) return fire;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la expresión de fecha
+     *
+     * @return El texto de la expresión
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Obtiene la zona horaria del disparador
+     *
+     * @return La zona horaria
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Obtiene la hora del día del disparador
+     *
+     * @return La hora del día
+     */
+    public LocalTime getTimeOfDay() {
+        return timeOfDay;
+    }
+
+    /**
+     * Devuelve la ventana resuelta que contiene un año, evaluándola de nuevo si no lo contiene.
+     *
+     * @param year  El año
+     * @return La ventana
+     */
+    private DateExpression window(int year) {
+        if(window == null || year < windowFirstYear || year >= windowFirstYear + WINDOW_YEARS) {
+            window = plan.evaluateWithMargin(year, WINDOW_YEARS, plan.getReachYears(), fullWeeks, WeekFields.of(locale));
+            windowFirstYear = year;
+        }
+        return window;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+/**
+ * Eventos de Java Flight Recorder del análisis, la evaluación, los resolutores y las cachés.
+ *
+ * Versión para Java 11 o superior del multi-release JAR. Mientras no hay una grabación que tenga
+ * activado el evento, los métodos <code>begin</code> sólo consultan su tipo y devuelven nulo, sin
+ * crear el evento ni consultar el reloj. Si la JVM no tiene el módulo <code>jdk.jfr</code> se
+ * comporta como la versión de Java 8, que no hace nada: la implementación está en
+ * {@link JfrEvents}, que sólo se carga tras comprobarlo.
+ *
+ * @author David Rodríguez Alfayate
+ */
+public final class FlightRecorderEvents {
+    /**
+     * Si el módulo <code>jdk.jfr</code> está disponible, por ejemplo no lo está en las imágenes
+     * de jlink que no lo incluyen
+     */
+    private static final boolean AVAILABLE = probe();
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Si los eventos se emiten en esta JVM
+     *
+     * @return Si se ha cargado la versión con JFR
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Comprueba una única vez si se puede cargar la implementación con JFR
+     */
+    private static boolean probe() {
+        if(!ModuleLayer.boot().findModule("jdk.jfr").isPresent()) return false;
+        try {
+            return JfrEvents.load();
+        } catch(LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Comienza el análisis de una expresión
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginParse() {
+        return AVAILABLE ? JfrEvents.beginParse() : null;
+    }
+
+    /**
+     * Termina el análisis de una expresión
+     *
+     * @param event      El evento en curso
+     * @param expression La expresión
+     * @param valid      Si la expresión es válida
+     */
+    public static void endParse(Object event, String expression, boolean valid) {
+        if(event != null) JfrEvents.endParse(event, expression, valid);
+    }
+
+    /**
+     * Comienza la evaluación de un plan
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginEvaluate() {
+        return AVAILABLE ? JfrEvents.beginEvaluate() : null;
+    }
+
+    /**
+     * Termina la evaluación de un plan
+     *
+     * @param event     El evento en curso
+     * @param planHash  El código hash del plan
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    public static void endEvaluate(Object event, int planHash, int firstYear, int years, int dates) {
+        if(event != null) JfrEvents.endEvaluate(event, planHash, firstYear, years, dates);
+    }
+
+    /**
+     * Comienza la invocación de un resolutor
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginResolve() {
+        return AVAILABLE ? JfrEvents.beginResolve() : null;
+    }
+
+    /**
+     * Termina la invocación de un resolutor
+     *
+     * @param event     El evento en curso
+     * @param resolver  El tipo de fecha o el nombre del átomo
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    public static void endResolve(Object event, String resolver, int firstYear, int years, int dates) {
+        if(event != null) JfrEvents.endResolve(event, resolver, firstYear, years, dates);
+    }
+
+    /**
+     * Comienza la búsqueda en una caché
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    public static Object beginCacheLookup() {
+        return AVAILABLE ? JfrEvents.beginCacheLookup() : null;
+    }
+
+    /**
+     * Termina la búsqueda en una caché
+     *
+     * @param event      El evento en curso
+     * @param cache      El nombre de la caché, {@link DateExpressionMetrics#PLAN_CACHE} o
+     *                   {@link DateExpressionMetrics#RESULT_CACHE}
+     * @param expression La expresión
+     * @param hit        Si estaba en la caché
+     */
+    public static void endCacheLookup(Object event, String cache, String expression, boolean hit) {
+        if(event != null) JfrEvents.endCacheLookup(event, cache, expression, hit);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2024  David Rodríguez Alfayate - Divisa iT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.proxiasuite.dateparser.metrics;
+
+import jdk.jfr.EventType;
+
+/**
+ * Implementación de {@link FlightRecorderEvents} con JFR. Es la única clase, junto con los
+ * eventos, que usa el módulo <code>jdk.jfr</code>, y sólo se carga si está disponible.
+ *
+ * @author David Rodríguez Alfayate
+ */
+final class JfrEvents {
+    private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+    private static final EventType EVALUATE = EventType.getEventType(EvaluateEvent.class);
+    private static final EventType RESOLVE = EventType.getEventType(ResolveEvent.class);
+    private static final EventType CACHE_LOOKUP = EventType.getEventType(CacheLookupEvent.class);
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Carga los tipos de los eventos
+     *
+     * @return Cierto, si JFR no está disponible la carga falla con un {@link LinkageError}
+     */
+    static boolean load() {
+        return PARSE != null && EVALUATE != null && RESOLVE != null && CACHE_LOOKUP != null;
+    }
+
+    /**
+     * Comienza el análisis de una expresión
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    static Object beginParse() {
+        if(!PARSE.isEnabled()) return null;
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Termina el análisis de una expresión
+     *
+     * @param event      El evento en curso
+     * @param expression La expresión
+     * @param valid      Si la expresión es válida
+     */
+    static void endParse(Object event, String expression, boolean valid) {
+        if(event == null) return;
+        ParseEvent e = (ParseEvent) event;
+        e.end();
+        if(e.shouldCommit()) {
+            e.expressionHash = expression.hashCode();
+            e.valid = valid;
+            e.commit();
+        }
+    }
+
+    /**
+     * Comienza la evaluación de un plan
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    static Object beginEvaluate() {
+        if(!EVALUATE.isEnabled()) return null;
+        EvaluateEvent event = new EvaluateEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Termina la evaluación de un plan
+     *
+     * @param event     El evento en curso
+     * @param planHash  El código hash del plan
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    static void endEvaluate(Object event, int planHash, int firstYear, int years, int dates) {
+        if(event == null) return;
+        EvaluateEvent e = (EvaluateEvent) event;
+        e.end();
+        if(e.shouldCommit()) {
+            e.planHash = planHash;
+            e.firstYear = firstYear;
+            e.years = years;
+            e.dates = dates;
+            e.commit();
+        }
+    }
+
+    /**
+     * Comienza la invocación de un resolutor
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    static Object beginResolve() {
+        if(!RESOLVE.isEnabled()) return null;
+        ResolveEvent event = new ResolveEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Termina la invocación de un resolutor
+     *
+     * @param event     El evento en curso
+     * @param resolver  El tipo de fecha o el nombre del átomo
+     * @param firstYear El primer año
+     * @param years     El número de años
+     * @param dates     El número de fechas del resultado
+     */
+    static void endResolve(Object event, String resolver, int firstYear, int years, int dates) {
+        if(event == null) return;
+        ResolveEvent e = (ResolveEvent) event;
+        e.end();
+        if(e.shouldCommit()) {
+            e.resolver = resolver;
+            e.firstYear = firstYear;
+            e.years = years;
+            e.dates = dates;
+            e.commit();
+        }
+    }
+
+    /**
+     * Comienza la búsqueda en una caché
+     *
+     * @return El evento en curso, nulo si no se graba
+     */
+    static Object beginCacheLookup() {
+        if(!CACHE_LOOKUP.isEnabled()) return null;
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Termina la búsqueda en una caché
+     *
+     * @param event      El evento en curso
+     * @param cache      El nombre de la caché, {@link DateExpressionMetrics#PLAN_CACHE} o
+     *                   {@link DateExpressionMetrics#RESULT_CACHE}
+     * @param expression La expresión
+     * @param hit        Si estaba en la caché
+     */
+    static void endCacheLookup(Object event, String cache, String expression, boolean hit) {
+        if(event == null) return;
+        CacheLookupEvent e = (CacheLookupEvent) event;
+        e.end();
+        if(e.shouldCommit()) {
+            e.cache = cache;
+            e.expressionHash = expression.hashCode();
+            e.hit = hit;
+            e.commit();
+        }
+    }
+}
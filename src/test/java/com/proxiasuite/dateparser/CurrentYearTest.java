@@ -0,0 +1,88 @@
+package com.proxiasuite.dateparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrentYearTest {
+    /**
+     * Reloj que sólo avanza cuando se lo indicamos, cuenta las consultas
+     */
+    static class ManualClock extends Clock {
+        Instant instant;
+        int reads;
+
+        ManualClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            reads++;
+            return instant;
+        }
+    }
+
+    @Test
+    public void testRolloverPerZone() {
+        ZoneId kiritimati = ZoneId.of("Pacific/Kiritimati");
+        ZoneId losAngeles = ZoneId.of("America/Los_Angeles");
+        ManualClock clock = new ManualClock(Instant.parse("2025-12-31T09:59:59Z"));
+        CurrentYear currentYear = new CurrentYear(clock);
+
+        assertEquals(2025, currentYear.get(kiritimati));
+        assertEquals(2025, currentYear.get(losAngeles));
+        assertEquals(2025, currentYear.get());
+
+        // Kiritimati (UTC+14) cambia de año a las 10:00 UTC, el resto sigue en 2025
+        clock.instant = Instant.parse("2025-12-31T10:00:00Z");
+        assertEquals(2026, currentYear.get(kiritimati));
+        assertEquals(2025, currentYear.get(losAngeles));
+        assertEquals(2025, currentYear.get());
+
+        clock.instant = Instant.parse("2026-01-01T08:00:00Z");
+        assertEquals(2026, currentYear.get());
+        assertEquals(2026, currentYear.get(losAngeles));
+
+        // Si el reloj retrocede también lo detectamos
+        clock.instant = Instant.parse("2025-06-01T00:00:00Z");
+        assertEquals(2025, currentYear.get(kiritimati));
+    }
+
+    @Test
+    public void testParseWithClock() {
+        Locale locale = new Locale("es","ES");
+        ManualClock clock = new ManualClock(Instant.parse("2030-03-01T00:00:00Z"));
+        DateExpression de = DateExpression.parse(locale, clock, true, 2, "primer lunes de mayo");
+        assertEquals(1, clock.reads);
+        assertEquals(LocalDate.of(2030,5,6), de.getDates().get(0));
+        assertEquals(LocalDate.of(2031,5,5), de.getDates().get(1));
+    }
+
+    @Test
+    public void testCacheFollowsCurrentYear() {
+        Locale locale = new Locale("es","ES");
+        ZoneId madrid = ZoneId.of("Europe/Madrid");
+        ManualClock clock = new ManualClock(Instant.parse("2025-12-31T22:59:59Z"));
+        DateExpressionCache cache = new DateExpressionCache(10000, clock);
+
+        assertEquals(LocalDate.of(2025,1,6), cache.get(locale, madrid, true, 2, "seis de enero").getDates().get(0));
+        clock.instant = Instant.parse("2025-12-31T23:00:00Z");
+        assertEquals(LocalDate.of(2026,1,6), cache.get(locale, madrid, true, 2, "seis de enero").getDates().get(0));
+        // Sólo se evalúa el año que entra
+        assertEquals(3, cache.getEvaluatedYears());
+    }
+}
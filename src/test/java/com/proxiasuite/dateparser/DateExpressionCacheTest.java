@@ -0,0 +1,98 @@
+package com.proxiasuite.dateparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionCacheTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testSubsumption() {
+        DateExpressionCache cache = new DateExpressionCache(10000);
+        String expr = "uno de diciembre al seis de enero";
+
+        DateExpression de = cache.get(LOCALE, ZONE, true, 2024, 10, expr);
+        assertEquals(DateHorizon.parse(LOCALE, ZONE, true, 2024, 10, expr).getDateExpression().getDates(), de.getDates());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(10, cache.getEvaluatedYears());
+
+        // Ventanas contenidas en los años guardados: se resuelven recortando
+        assertEquals(DateHorizon.parse(LOCALE, ZONE, true, 2025, 1, expr).getDateExpression().getDates(),
+                     cache.get(LOCALE, ZONE, true, 2025, 1, expr).getDates());
+        assertEquals(DateHorizon.parse(LOCALE, ZONE, true, 2025, 2, expr).getDateExpression().getDates(),
+                     cache.get(LOCALE, ZONE, true, 2025, 2, expr).getDates());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Sólo se evalúan los años que faltan
+        assertEquals(DateHorizon.parse(LOCALE, ZONE, true, 2020, 20, expr).getDateExpression().getDates(),
+                     cache.get(LOCALE, ZONE, true, 2020, 20, expr).getDates());
+        assertEquals(20, cache.getEvaluatedYears());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEmptyYearsAreCached() {
+        DateExpressionCache cache = new DateExpressionCache(10000);
+        String expr = "veintinueve de febrero";
+        assertEquals(1, cache.get(LOCALE, ZONE, true, 2024, 4, expr).getDates().size());
+        assertTrue(cache.get(LOCALE, ZONE, true, 2025, 2, expr).getDates().isEmpty());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testWeightEviction() {
+        DateExpressionCache cache = new DateExpressionCache(80);
+        cache.get(LOCALE, ZONE, true, 2024, 1, "enero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "febrero");
+        assertEquals(2, cache.size());
+        assertEquals(31 + 29, cache.getWeight());
+
+        // Marzo no cabe junto a enero, que es el menos usado
+        cache.get(LOCALE, ZONE, true, 2024, 1, "febrero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "marzo");
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(29 + 31, cache.getWeight());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        DateExpressionCache cache = new DateExpressionCache(100);
+        assertNull(cache.get(LOCALE, ZONE, true, 2024, 1, "navidad"));
+        assertNull(cache.get(LOCALE, ZONE, true, 2024, 1, "navidad"));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testEmptyYearsAndInvalidExpressionsWeigh() {
+        DateExpressionCache cache = new DateExpressionCache(5);
+        // Los años sin fechas pesan uno
+        cache.get(LOCALE, ZONE, true, 2025, 3, "veintinueve de febrero");
+        assertEquals(3, cache.getWeight());
+
+        // Las expresiones inválidas también cuentan y acaban descartando a las demás
+        assertNull(cache.get(LOCALE, ZONE, true, 2024, 1, "navidad"));
+        assertNull(cache.get(LOCALE, ZONE, true, 2024, 1, "nochevieja"));
+        assertNull(cache.get(LOCALE, ZONE, true, 2024, 1, "reyes"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.getWeight());
+    }
+
+    @Test
+    public void testNonPositiveYears() {
+        DateExpressionCache cache = new DateExpressionCache(100);
+        assertThrows(IllegalArgumentException.class, () -> cache.get(LOCALE, ZONE, true, 2024, 0, "enero"));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(LOCALE, ZONE, true, 2024, -1, "enero"));
+        assertEquals(0, cache.size());
+    }
+}
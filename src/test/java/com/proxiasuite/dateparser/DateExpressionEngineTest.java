@@ -0,0 +1,174 @@
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionEngineTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private static void assertSameResult(DateExpression expected, DateExpression actual) {
+        if(expected == null) {
+            assertNull(actual);
+        } else {
+            assertNotNull(actual);
+            assertEquals(expected.getDates(), actual.getDates());
+            assertEquals(expected.isApproximate(), actual.isApproximate());
+        }
+    }
+
+    @Test
+    public void testSameAsParse() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 3);
+        // Dos pasadas, la segunda con la sesión ya usada
+        for(int i=0;i<2;i++) {
+            for(String expr: TestExpressions.VALID) {
+                assertSameResult(DateExpression.parse(LOCALE, ZONE, true, 2024, 3, expr), engine.parse(2024, expr));
+            }
+            for(String expr: TestExpressions.INVALID) {
+                assertNull(engine.parse(2024, expr), expr);
+            }
+            for(String expr: TestExpressions.RECOVERED) {
+                assertSameResult(DateExpression.parse(LOCALE, ZONE, true, 2024, 3, expr), engine.parse(2024, expr));
+            }
+        }
+    }
+
+    @Test
+    public void testDefinitionsDoNotLeak() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 1);
+        assertNotNull(engine.parse(2024, "def navidad: 25 de diciembre\r\nnavidad"));
+        assertNull(engine.parse(2024, "navidad"));
+    }
+
+    @Test
+    public void testWarmUp() {
+        List<String> corpus = DateExpression.getWarmUpCorpus();
+        assertTrue(corpus.contains("uno de enero"));
+        assertTrue(corpus.contains("def navidad: 25 de diciembre\nnavidad"));
+        assertFalse(corpus.stream().anyMatch(expr->expr.startsWith("#") || expr.isEmpty()));
+
+        // Todas las expresiones del corpus son válidas
+        GrammarDfaCache dfaCache = new GrammarDfaCache(GrammarDfaCache.DEFAULT_MAX_STATES, 1);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 2, dfaCache);
+        assertEquals(corpus.size(), engine.warmUp());
+        // Aunque el reconocedor rápido resuelva "uno de enero", la gramática también la ha visto
+        assertTrue(dfaCache.size() > 0);
+        assertSame(engine.compile("uno de enero"), engine.compile("uno de enero"));
+
+        // Con particiones, todas se llenan con el corpus y no sólo la del hilo que calienta
+        GrammarDfaCache sharded = new GrammarDfaCache(GrammarDfaCache.DEFAULT_MAX_STATES, 4);
+        new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 2, sharded).warmUp();
+        assertEquals(4 * dfaCache.size(), sharded.size());
+
+        assertEquals(1, DateExpression.warmUp(LOCALE, ZONE, true, 2024, 1, Arrays.asList("uno de enero", "navidad")));
+    }
+
+    @Test
+    public void testDiscardedEngineIsCollected() throws Exception {
+        // La sesión que queda en el hilo no debe retener al motor descartado
+        WeakReference<DateExpressionEngine> ref = discardedEngine();
+        // System.gc() es solo una sugerencia; se genera basura para forzar también las recogidas
+        for(int i = 0; i < 200 && ref.get() != null; i++) {
+            List<byte[]> garbage = new ArrayList<>();
+            for(int j = 0; j < 64; j++) garbage.add(new byte[64 * 1024]);
+            assertNotNull(garbage);
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    private static WeakReference<DateExpressionEngine> discardedEngine() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1,
+                                                               new GrammarDfaCache(1000));
+        // Pasa por la gramática, de forma que el hilo guarda una sesión del motor
+        assertNotNull(engine.parse(2024, "uno de diciembre al seis de enero"));
+        return new WeakReference<>(engine);
+    }
+
+    @Test
+    public void testPlanCacheIsBounded() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 1);
+        DateExpressionPlan recent = engine.compile("uno de enero");
+        DateExpressionPlan old = engine.compile("dos de enero");
+        for(int i = 0; i < DateExpressionEngine.MAX_PLANS; i++) {
+            if(i == 1) assertSame(recent, engine.compile("uno de enero"));
+            engine.compile(i + " dias despues del tres de enero");
+        }
+        assertEquals(DateExpressionEngine.MAX_PLANS, engine.getPlanCount());
+        // Se descartan los planes usados hace más tiempo
+        assertSame(recent, engine.compile("uno de enero"));
+        assertNotSame(old, engine.compile("dos de enero"));
+
+        // Las expresiones inválidas tienen su propio máximo y no desplazan a los planes
+        for(int i = 0; i < 2 * DateExpressionEngine.MAX_INVALID_PLANS; i++) {
+            assertNull(engine.compile("navidad " + i));
+        }
+        assertEquals(DateExpressionEngine.MAX_PLANS + DateExpressionEngine.MAX_INVALID_PLANS, engine.getPlanCount());
+        assertSame(recent, engine.compile("uno de enero"));
+    }
+
+    @Test
+    public void testCachedPlanHonoursNewLimits() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 1);
+        String expr = "99999 semanas antes de enero";
+        assertNotNull(engine.compile(expr));
+        DateExpressionLimits previous = DateExpressionLimits.getDefault();
+        try {
+            // El plan guardado se compiló sin límites, con los nuevos se vuelve a comprobar
+            DateExpressionLimits.setDefault(DateExpressionLimits.UNTRUSTED);
+            DateExpressionLimitException e = assertThrows(DateExpressionLimitException.class, ()->engine.compile(expr));
+            assertEquals(DateExpressionLimitException.Limit.SHIFT, e.getLimit());
+        } finally {
+            DateExpressionLimits.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void testCurrentYear() {
+        Clock clock = Clock.fixed(Instant.parse("2030-06-01T00:00:00Z"), ZONE);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, clock, false, 2);
+        assertSameResult(DateExpression.parse(LOCALE, ZONE, false, 2030, 2, "primera semana de abril"),
+                         engine.parse("primera semana de abril"));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t=0;t<4;t++) {
+                futures.add(executor.submit(()->{
+                    for(int i=0;i<20;i++) {
+                        for(String expr: TestExpressions.VALID) {
+                            assertSameResult(DateExpression.parse(LOCALE, ZONE, true, 2025, 2, expr), engine.parse(2025, expr));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> f: futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.proxiasuite.dateparser;
+
+import com.proxiasuite.dateparser.DateExpressionLimitException.Limit;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionLimitsTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @AfterEach
+    public void tearDown() {
+        DateExpressionLimits.setDefault(null);
+    }
+
+    private static Limit limit(String expr, int years) {
+        return assertThrows(DateExpressionLimitException.class,
+                            ()->DateExpression.parse(LOCALE, ZONE, true, 2024, years, expr)).getLimit();
+    }
+
+    @Test
+    public void testUntrusted() {
+        DateExpressionLimits.setDefault(DateExpressionLimits.UNTRUSTED);
+
+        assertEquals(Limit.YEARS, limit("enero", 10000));
+        assertEquals(Limit.SHIFT, limit("99999 semanas antes de enero", 1));
+        assertEquals(Limit.LENGTH, limit(new String(new char[2000]).replace('\0', 'x'), 1));
+        StringBuilder chain = new StringBuilder();
+        for(int i = 0; i < 40; i++) chain.append("lunes despues del ");
+        assertEquals(Limit.DEPTH, limit(chain + "uno de enero", 1));
+
+        // Dentro de los límites se resuelven igual que sin ellos
+        assertEquals(31, DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "enero").getDateCount());
+        assertNotNull(DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "lunes despues del lunes despues del uno de enero"));
+        assertNotNull(DateExpression.parse(LOCALE, ZONE, true, 2024, 100, "3 semanas antes de febrero"));
+    }
+
+    @Test
+    public void testMarginDoesNotCount() {
+        DateExpressionLimits.setDefault(DateExpressionLimits.UNTRUSTED);
+        // El margen de las costuras no cuenta para el límite de años, como en DateExpression.parse
+        assertEquals(100, DateExpression.parse(LOCALE, ZONE, true, 2024, 100, "uno de enero").getDateCount());
+        assertEquals(100, DateHorizon.parse(LOCALE, ZONE, true, 2024, 100, "uno de enero").getDateExpression().getDateCount());
+        DateExpressionCache cache = new DateExpressionCache(100000);
+        assertEquals(100, cache.get(LOCALE, ZONE, true, 2024, 100, "uno de enero").getDateCount());
+
+        // Un desplazamiento dentro del límite, aunque su margen supere los cien años
+        String expr = "1000 meses antes del uno de enero";
+        assertTrue(DateExpression.compile(expr).getReachYears() > 50);
+        assertEquals(1, cache.get(LOCALE, ZONE, true, 2024, 1, expr).getDateCount());
+        assertEquals(1, DateHorizon.parse(LOCALE, ZONE, true, 2024, 1, expr).getDateExpression().getDateCount());
+
+        // La ventana pedida sí cuenta
+        DateExpressionLimitException e = assertThrows(DateExpressionLimitException.class,
+                ()->DateHorizon.parse(LOCALE, ZONE, true, 2024, 101, "uno de enero"));
+        assertEquals(Limit.YEARS, e.getLimit());
+        assertEquals(101, e.getValue());
+        e = assertThrows(DateExpressionLimitException.class, ()->cache.get(LOCALE, ZONE, true, 2024, 101, "uno de enero"));
+        assertEquals(101, e.getValue());
+    }
+
+    @Test
+    public void testNumberOverflow() {
+        // Aun sin límites un número que no cabe en un entero falla con el tipo propio
+        DateExpressionLimitException e = assertThrows(DateExpressionLimitException.class,
+                ()->DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "99999999999 dias antes de enero"));
+        assertEquals(Limit.NUMBER, e.getLimit());
+        assertEquals(99999999999L, e.getValue());
+        assertTrue(e instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testDates() {
+        DateExpressionLimits.setDefault(new DateExpressionLimits(100, 40, 32, 1000, 1000));
+        assertEquals(31, DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "enero").getDateCount());
+        DateExpressionLimitException e = assertThrows(DateExpressionLimitException.class,
+                ()->DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "enero"));
+        assertEquals(Limit.DATES, e.getLimit());
+        assertEquals(40, e.getMaximum());
+        assertEquals(62, e.getValue());
+
+        // También en un plan especializado
+        DateExpressionLimits.setDefault(null);
+        DateExpressionPlan plan = DateExpression.compile("primer lunes de enero a treinta de marzo");
+        plan.specialize();
+        WeekFields week = WeekFields.of(LOCALE);
+        assertNotNull(plan.evaluate(2024, 2, true, week));
+        DateExpressionLimits.setDefault(new DateExpressionLimits(100, 40, 32, 1000, 1000));
+        assertEquals(Limit.DATES, assertThrows(DateExpressionLimitException.class,
+                                               ()->plan.evaluate(2024, 2, true, week)).getLimit());
+    }
+
+    @Test
+    public void testEngine() {
+        DateExpressionLimits.setDefault(DateExpressionLimits.UNTRUSTED);
+        assertEquals(Limit.YEARS, assertThrows(DateExpressionLimitException.class,
+                ()->new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1000)).getLimit());
+
+        // La sesión del motor sigue funcionando tras abortar un análisis
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1);
+        StringBuilder chain = new StringBuilder();
+        for(int i = 0; i < 40; i++) chain.append("viernes antes del ");
+        assertThrows(DateExpressionLimitException.class, ()->engine.parse(2024, chain + "uno de mayo"));
+        assertThrows(DateExpressionLimitException.class, ()->engine.parse(2024, "500000 dias despues de mayo"));
+        assertEquals(DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "2 semanas antes de febrero y uno de mayo").getDates(),
+                     engine.parse(2024, "2 semanas antes de febrero y uno de mayo").getDates());
+        assertNull(engine.parse(2024, "esto no es una fecha"));
+    }
+}
@@ -3,6 +3,7 @@ package com.proxiasuite.dateparser;
 import org.junit.jupiter.api.Test;
 
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.ZoneId;
@@ -655,7 +656,56 @@ public class DateExpressionTest {
         assertTrue(Objects.deepEquals(d1.getDates(),d2.compare(d1, DateExpression.Opcode.GREATER,d1,d2).getDates()));
     }
 
+    @Test
+    public void testEpochMilliIntervals() {
+        ZoneId zoneId = ZoneId.of("Europe/Madrid");
+        DateExpression de = new DateExpression(new Locale("es","ES"), false,
+                Arrays.asList(LocalDate.of(2024,1,1),LocalDate.of(2024,1,2),LocalDate.of(2024,1,5),LocalDate.of(2024,3,31)));
+        long [] intervals = de.toEpochMilliIntervals(zoneId);
+        assertEquals(6,intervals.length);
+        // Los días consecutivos se fusionan
+        assertEquals(Instant.parse("2023-12-31T23:00:00Z").toEpochMilli(),intervals[0]);
+        assertEquals(Instant.parse("2024-01-02T23:00:00Z").toEpochMilli(),intervals[1]);
+        // El día del cambio de hora dura 23 horas
+        assertEquals(Instant.parse("2024-03-30T23:00:00Z").toEpochMilli(),intervals[4]);
+        assertEquals(Instant.parse("2024-03-31T22:00:00Z").toEpochMilli(),intervals[5]);
+
+        assertTrue(DateExpression.containsEpochMilli(intervals,intervals[0]));
+        assertTrue(DateExpression.containsEpochMilli(intervals,Instant.parse("2024-01-02T12:00:00Z").toEpochMilli()));
+        assertFalse(DateExpression.containsEpochMilli(intervals,intervals[1]));
+        assertFalse(DateExpression.containsEpochMilli(intervals,Instant.parse("2024-01-03T12:00:00Z").toEpochMilli()));
+        assertTrue(DateExpression.containsEpochMilli(intervals,Instant.parse("2024-03-31T21:59:59.999Z").toEpochMilli()));
+        assertFalse(DateExpression.containsEpochMilli(intervals,Instant.parse("2024-03-31T22:00:00Z").toEpochMilli()));
+        assertFalse(DateExpression.containsEpochMilli(intervals,Long.MIN_VALUE));
+        assertFalse(DateExpression.containsEpochMilli(intervals,Long.MAX_VALUE));
+    }
 
+    @Test
+    public void testEstimateRetainedBytes() {
+        Locale locale = new Locale("es","ES");
+        long empty = new DateExpression(locale, false, new ArrayList<>()).estimateRetainedBytes();
+        assertEquals(DateExpression.EXPRESSION_BYTES + DateExpression.TREE_MAP_BYTES, empty);
 
+        // Un año con tres fechas: entrada del mapa, año, lista, array de 3 referencias (28 -> 32) y fechas
+        DateExpression de = new DateExpression(locale, false,
+                Arrays.asList(LocalDate.of(2024,1,1),LocalDate.of(2024,1,2),LocalDate.of(2024,1,5)));
+        assertEquals(empty + 40 + 16 + 24 + 32 + 3 * 24, de.estimateRetainedBytes());
 
+        // Crece de forma lineal con el número de años
+        ZoneId zoneId = ZoneId.of("Europe/Madrid");
+        long ten = DateExpression.parse(locale, zoneId, true, 2024, 10, "enero").estimateRetainedBytes();
+        long hundred = DateExpression.parse(locale, zoneId, true, 2024, 100, "enero").estimateRetainedBytes();
+        assertEquals(10 * (ten - empty), hundred - empty);
+    }
+
+    @Test
+    public void testEpochMilliIntervalsMidnightGap() {
+        // En Sao Paulo, el 4 de noviembre de 2018 no hubo medianoche, el día empieza a la 01:00
+        DateExpression de = new DateExpression(new Locale("es","ES"), false, Arrays.asList(LocalDate.of(2018,11,4)));
+        long [] intervals = de.toEpochMilliIntervals(ZoneId.of("America/Sao_Paulo"));
+        assertEquals(2,intervals.length);
+        assertEquals(Instant.parse("2018-11-04T03:00:00Z").toEpochMilli(),intervals[0]);
+        assertEquals(Instant.parse("2018-11-05T02:00:00Z").toEpochMilli(),intervals[1]);
+        assertEquals(0,new DateExpression(new Locale("es","ES"), false, new ArrayList<>()).toEpochMilliIntervals(ZoneId.of("UTC")).length);
+    }
 }
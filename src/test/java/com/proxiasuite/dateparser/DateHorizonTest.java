@@ -0,0 +1,101 @@
+package com.proxiasuite.dateparser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateHorizonTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    private static List<LocalDate> horizon(int firstYear, int years, String expr) {
+        return DateHorizon.parse(LOCALE, ZONE, true, firstYear, years, expr).getDateExpression().getDates();
+    }
+
+    /**
+     * Evaluación completa de referencia: con margen y recortada a los años pedidos
+     */
+    private static List<LocalDate> reference(int firstYear, int years, String expr) {
+        return DateExpression.parse(LOCALE, ZONE, true, firstYear - 1, years + 2, expr).getDates().stream()
+                .filter(ld->ld.getYear() >= firstYear && ld.getYear() < firstYear + years)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCrossYearPeriod() {
+        String expr = "uno de diciembre al seis de enero";
+        List<LocalDate> dates = horizon(2024,2,expr);
+        assertEquals(reference(2024,2,expr),dates);
+        // Los primeros días de enero vienen del periodo que empieza en el año anterior
+        assertEquals(LocalDate.of(2024,1,1),dates.get(0));
+        assertEquals(LocalDate.of(2025,12,31),dates.get(dates.size()-1));
+        assertEquals(2*(6+31),dates.size());
+    }
+
+    @Test
+    public void testExtendForward() {
+        String expr = "uno de diciembre al seis de enero";
+        DateHorizon dh = DateHorizon.parse(LOCALE, ZONE, true, 2024, 2, expr).extendForward(2);
+        assertEquals(2024,dh.getFirstYear());
+        assertEquals(4,dh.getYears());
+        assertEquals(reference(2024,4,expr),dh.getDateExpression().getDates());
+        assertEquals(horizon(2024,4,expr),dh.getDateExpression().getDates());
+    }
+
+    @Test
+    public void testExtendBackward() {
+        String expr = "un mes antes del quince de enero";
+        DateHorizon dh = DateHorizon.parse(LOCALE, ZONE, true, 2024, 1, expr);
+        // El quince de diciembre de 2024 viene del quince de enero de 2025
+        assertEquals(1,dh.getDateExpression().getDates().size());
+        assertEquals(LocalDate.of(2024,12,15),dh.getDateExpression().getDates().get(0));
+
+        dh = dh.extendBackward(2);
+        assertEquals(2022,dh.getFirstYear());
+        assertEquals(reference(2022,3,expr),dh.getDateExpression().getDates());
+    }
+
+    @Test
+    public void testLongShift() {
+        // Un desplazamiento de más de un año necesita más de un año de margen
+        String expr = "13 meses antes del quince de enero";
+        assertEquals(2, DateExpression.compile(expr).getReachYears());
+        DateHorizon dh = DateHorizon.parse(LOCALE, ZONE, true, 2024, 1, expr);
+        // El quince de diciembre de 2024 viene del quince de enero de 2026
+        assertEquals(Collections.singletonList(LocalDate.of(2024,12,15)), dh.getDateExpression().getDates());
+
+        dh = dh.extendForward(3).roll(2);
+        List<LocalDate> expected = DateExpression.parse(LOCALE, ZONE, true, 2020, 15, expr).getDates().stream()
+                .filter(ld->ld.getYear() >= 2026 && ld.getYear() < 2030)
+                .collect(Collectors.toList());
+        assertEquals(expected, dh.getDateExpression().getDates());
+        assertEquals(1, DateExpression.compile("uno de diciembre al seis de enero").getReachYears());
+    }
+
+    @Test
+    public void testRoll() {
+        String expr = "primer lunes de enero y ultimo viernes de diciembre";
+        DateHorizon dh = DateHorizon.parse(LOCALE, ZONE, true, 2024, 3, expr).roll(1);
+        assertEquals(2025,dh.getFirstYear());
+        assertEquals(3,dh.getYears());
+        assertEquals(horizon(2025,3,expr),dh.getDateExpression().getDates());
+
+        dh = dh.roll(5);
+        assertEquals(2030,dh.getFirstYear());
+        assertEquals(horizon(2030,3,expr),dh.getDateExpression().getDates());
+    }
+
+    @Test
+    public void testApproximateAndInvalid() {
+        assertTrue(DateHorizon.parse(LOCALE, ZONE, true, 2024, 1, "aprox primera quincena de febrero").extendForward(1)
+                              .getDateExpression().isApproximate());
+        assertNull(DateHorizon.parse(LOCALE, ZONE, true, 2024, 1, "navidad"));
+    }
+}
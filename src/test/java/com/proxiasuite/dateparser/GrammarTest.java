@@ -459,5 +459,4 @@ public class GrammarTest {
         assertNull(de);
 
     }
-    }
 }
@@ -3,6 +3,8 @@ package com.proxiasuite.dateparser;
 import com.proxiasuite.dateparser.resolver.*;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.ZoneId;
@@ -66,6 +68,18 @@ public class IDateResolverTest {
         }
     }
 
+    @Test
+    public void testClock() {
+        // El resultado sólo depende del reloj indicado
+        Clock clock = Clock.fixed(Instant.parse("2031-12-31T23:30:00Z"), ZoneId.of("Europe/Madrid"));
+        List<LocalDate> dates = IDateResolver.getInstance(DateType.February).resolve(1, true, new Locale("es","ES"), clock).getDates();
+        assertEquals(LocalDate.of(2032,2,1), dates.get(0));
+        assertEquals(29, dates.size());
+
+        dates = IDateResolver.getInstance(DateType.Pentecost).resolve(1, true, new Locale("es","ES"), clock).getDates();
+        assertEquals(LocalDate.of(2032,5,16), dates.get(0));
+    }
+
     @Test
     public void testResolvers() {
         assertEquals(AscensionResolver.class,IDateResolver.getInstance(DateType.Ascension).getClass());
@@ -0,0 +1,76 @@
+package com.proxiasuite.dateparser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expresiones de prueba compartidas por los tests que comparan distintas formas de resolver
+ * una misma expresión
+ */
+public final class TestExpressions {
+    public static final List<String> VALID = Arrays.asList(
+            "uno de enero",
+            "enero",
+            "diciembre",
+            "tercer fin de semana de agosto",
+            "lunes despues del lunes de pascua",
+            "lunes después del lunes de pascua",
+            "3 y cuarto domingo de junio",
+            "3 y cuarto domingo de junio y 1 de abril",
+            "3 y cuarto domingo de junio y seis de junio y primer domingo de semana santa",
+            "primer lunes del primer y segundo lunes de julio",
+            "penultimo martes de marzo",
+            "ultima semana de febrero",
+            "primera quincena de febrero",
+            "aprox primera quincena de febrero",
+            "del 3 al 4 de julio",
+            "uno de diciembre al seis de enero",
+            "un mes antes del quince de enero",
+            "tres dias antes del primer sabado de febrero",
+            "segundo fin de semana antes del primer sabado de febrero",
+            "fin de semana despues de la ascension",
+            "viernes despues del corpus",
+            "fin de semana proximo al 14 de julio",
+            "jueves proximo al 14 de julio",
+            "2 semanas despues del miercoles de ceniza",
+            "1 mes despues del domingo de pentecostes",
+            "primer lunes de enero y ultimo viernes de diciembre",
+            "veintinueve de febrero",
+            "carnaval",
+            "semana santa",
+            "def navidad: 25 de diciembre\r\nnavidad",
+            "def navidad: 31 de diciembre\r\ndef annonuevo: 1 de enero\r\nde navidad a annonuevo",
+            "def resurreccion: domingo antes del lunes de pascua\r\n" +
+                    "si resurreccion es igual a segundo domingo de semana santa \r\n" +
+                    "entonces 25 de diciembre\r\nsi no 31 de enero\r\n",
+            "def resurreccion: lunes antes del lunes de pascua\r\n" +
+                    "si resurreccion es igual a segundo domingo de semana santa \r\n" +
+                    "entonces 25 de diciembre\r\nsi no 31 de enero\r\n",
+            "si sabado de carnaval es igual a segundo sabado de febrero\r\n" +
+                    "entonces primer fin de semana de marzo \r\nsi no ultimo fin de semana de abril\r\n",
+            "si sabado de carnaval es mayor que segundo sabado de febrero\r\n" +
+                    "entonces primer fin de semana de marzo \r\nsi no ultimo fin de semana de abril\r\n"
+    );
+
+    public static final List<String> INVALID = Arrays.asList(
+            "navidad",
+            "uno de",
+            "si enero",
+            "xyz enero",
+            "lunes de",
+            "antes de enero",
+            "entonces enero"
+    );
+
+    /**
+     * Expresiones con errores de los que se recupera el analizador, y que por tanto se resuelven
+     */
+    public static final List<String> RECOVERED = Arrays.asList(
+            "enero y",
+            "enero enero",
+            "1 2 enero"
+    );
+
+    private TestExpressions() {
+    }
+}
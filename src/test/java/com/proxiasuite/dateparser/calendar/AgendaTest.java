@@ -0,0 +1,81 @@
+package com.proxiasuite.dateparser.calendar;
+
+import com.proxiasuite.dateparser.DateExpression;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgendaTest {
+    private static DateExpression parse(String expr) {
+        DateExpression de = DateExpression.parse(new Locale("es","ES"), ZoneId.of("Europe/Madrid"),true,2024,3,expr);
+        assertNotNull(de);
+        return de;
+    }
+
+    private Agenda<String> agenda() {
+        Map<String,DateExpression> rules = new LinkedHashMap<>();
+        rules.put("navidad",parse("veinticinco de diciembre"));
+        rules.put("reyes",parse("seis de enero"));
+        rules.put("pagos",parse("uno de enero y uno de julio"));
+        return new Agenda<>(rules);
+    }
+
+    @Test
+    public void testNext() {
+        List<AgendaEntry<String>> entries = agenda().next(LocalDate.of(2024,6,1),5);
+        assertEquals(5,entries.size());
+        assertEquals(LocalDate.of(2024,7,1),entries.get(0).getDate());
+        assertEquals("pagos",entries.get(0).getRule());
+        assertEquals(LocalDate.of(2024,12,25),entries.get(1).getDate());
+        assertEquals("navidad",entries.get(1).getRule());
+        assertEquals(LocalDate.of(2025,1,1),entries.get(2).getDate());
+        assertEquals(LocalDate.of(2025,1,6),entries.get(3).getDate());
+        assertEquals("reyes",entries.get(3).getRule());
+        assertEquals(LocalDate.of(2025,7,1),entries.get(4).getDate());
+    }
+
+    @Test
+    public void testFromIsInclusive() {
+        List<AgendaEntry<String>> entries = agenda().next(LocalDate.of(2024,12,25),1);
+        assertEquals(1,entries.size());
+        assertEquals(LocalDate.of(2024,12,25),entries.get(0).getDate());
+    }
+
+    @Test
+    public void testSameDateKeepsRuleOrder() {
+        Map<String,DateExpression> rules = new LinkedHashMap<>();
+        rules.put("b",parse("uno de enero"));
+        rules.put("a",parse("primer dia de enero"));
+        List<AgendaEntry<String>> entries = new Agenda<>(rules).next(LocalDate.of(2024,1,1),2);
+        assertEquals("b",entries.get(0).getRule());
+        assertEquals("a",entries.get(1).getRule());
+        assertEquals(entries.get(0).getDate(),entries.get(1).getDate());
+    }
+
+    @Test
+    public void testExhausted() {
+        Iterator<AgendaEntry<String>> it = agenda().iterator(LocalDate.of(2026,12,1));
+        assertTrue(it.hasNext());
+        assertEquals(LocalDate.of(2026,12,25),it.next().getDate());
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class,it::next);
+        assertTrue(agenda().next(LocalDate.of(2030,1,1),10).isEmpty());
+    }
+
+    @Test
+    public void testMatchesSortedUnion() {
+        Agenda<String> agenda = agenda();
+        List<LocalDate> expected = new ArrayList<>();
+        for(String expr: Arrays.asList("veinticinco de diciembre","seis de enero","uno de enero y uno de julio")) {
+            expected.addAll(parse(expr).getDates());
+        }
+        Collections.sort(expected);
+        List<LocalDate> merged = new ArrayList<>();
+        agenda.next(LocalDate.of(2024,1,1),100).forEach(e->merged.add(e.getDate()));
+        assertEquals(expected,merged);
+    }
+}
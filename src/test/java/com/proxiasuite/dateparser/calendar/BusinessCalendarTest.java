@@ -0,0 +1,84 @@
+package com.proxiasuite.dateparser.calendar;
+
+import com.proxiasuite.dateparser.DateExpression;
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BusinessCalendarTest {
+    private BusinessCalendar calendar() {
+        DateExpression holidays = DateExpression.parse(new Locale("es","ES"), ZoneId.of("Europe/Madrid"),true,2024,2,
+                                                       "uno de enero y veinticinco de diciembre");
+        assertNotNull(holidays);
+        return new BusinessCalendar(holidays);
+    }
+
+    @Test
+    public void testBounds() {
+        BusinessCalendar bc = calendar();
+        assertEquals(LocalDate.of(2024,1,1),bc.getFirstDate());
+        assertEquals(LocalDate.of(2025,12,31),bc.getLastDate());
+    }
+
+    @Test
+    public void testIsBusinessDay() {
+        BusinessCalendar bc = calendar();
+        assertFalse(bc.isBusinessDay(LocalDate.of(2024,1,1)));
+        assertTrue(bc.isBusinessDay(LocalDate.of(2024,1,2)));
+        assertFalse(bc.isBusinessDay(LocalDate.of(2024,1,6)));
+        assertFalse(bc.isBusinessDay(LocalDate.of(2024,1,7)));
+        assertFalse(bc.isBusinessDay(LocalDate.of(2025,12,25)));
+    }
+
+    @Test
+    public void testAddBusinessDays() {
+        BusinessCalendar bc = calendar();
+        assertEquals(LocalDate.of(2024,12,26),bc.addBusinessDays(LocalDate.of(2024,12,24),1));
+        // Cruzamos el cambio de año, saltando fin de semana y año nuevo
+        assertEquals(LocalDate.of(2025,1,2),bc.addBusinessDays(LocalDate.of(2024,12,27),3));
+        assertEquals(LocalDate.of(2024,12,27),bc.addBusinessDays(LocalDate.of(2025,1,2),-3));
+        assertEquals(LocalDate.of(2024,1,6),bc.addBusinessDays(LocalDate.of(2024,1,6),0));
+    }
+
+    @Test
+    public void testNextAndPrevious() {
+        BusinessCalendar bc = calendar();
+        assertEquals(LocalDate.of(2025,1,2),bc.nextBusinessDay(LocalDate.of(2024,12,31)));
+        assertEquals(LocalDate.of(2024,12,31),bc.previousBusinessDay(LocalDate.of(2025,1,2)));
+        assertEquals(LocalDate.of(2024,1,8),bc.nextBusinessDay(LocalDate.of(2024,1,5)));
+    }
+
+    @Test
+    public void testBusinessDaysBetween() {
+        BusinessCalendar bc = calendar();
+        assertEquals(4,bc.businessDaysBetween(LocalDate.of(2024,12,27),LocalDate.of(2025,1,3)));
+        assertEquals(-4,bc.businessDaysBetween(LocalDate.of(2025,1,3),LocalDate.of(2024,12,27)));
+        assertEquals(0,bc.businessDaysBetween(LocalDate.of(2024,1,1),LocalDate.of(2024,1,1)));
+        // 2024 es bisiesto: 262 días de lunes a viernes menos dos festivos
+        assertEquals(260,bc.businessDaysBetween(LocalDate.of(2024,1,1),LocalDate.of(2025,1,1)));
+    }
+
+    @Test
+    public void testCustomWeekend() {
+        DateExpression holidays = DateExpression.parse(new Locale("es","ES"), ZoneId.of("Europe/Madrid"),true,2024,1,
+                                                       "uno de enero");
+        BusinessCalendar bc = new BusinessCalendar(2024,1,EnumSet.of(DayOfWeek.SUNDAY),holidays);
+        assertTrue(bc.isBusinessDay(LocalDate.of(2024,1,6)));
+        assertEquals(LocalDate.of(2024,1,8),bc.nextBusinessDay(LocalDate.of(2024,1,6)));
+    }
+
+    @Test
+    public void testOutOfRange() {
+        BusinessCalendar bc = calendar();
+        assertThrows(DateTimeException.class,()->bc.nextBusinessDay(LocalDate.of(2025,12,31)));
+        assertThrows(DateTimeException.class,()->bc.isBusinessDay(LocalDate.of(2023,12,31)));
+        assertThrows(IllegalArgumentException.class,()->new BusinessCalendar());
+    }
+}
@@ -0,0 +1,105 @@
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpressionCache;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.parser.DateExpressionPlan;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionManagementTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testStatistics() {
+        // Con umbral cero todas las expresiones son lentas
+        DateExpressionStatistics statistics = new DateExpressionStatistics(0, TimeUnit.MILLISECONDS);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1,
+                                                               new GrammarDfaCache(1000), statistics);
+        engine.parse(2024, "enero");
+        engine.parse(2024, "enero");
+        engine.parse(2024, "2 semanas antes de febrero");
+        engine.parse(2024, "esto no es una fecha");
+
+        // Se analizan tres expresiones distintas y se evalúan las tres válidas
+        assertEquals(3, statistics.getParseCount());
+        assertEquals(3, statistics.getEvaluateCount());
+        assertEquals(1, statistics.getFailedCount());
+        assertEquals(6, statistics.getSlowCount());
+        assertTrue(statistics.getMaxParseNanos() > 0);
+        assertTrue(statistics.getParseNanos() >= statistics.getMaxParseNanos());
+
+        // Las estadísticas no impiden la especialización de los planes
+        DateExpressionPlan plan = engine.compile("2 semanas antes de febrero");
+        for(int k = 0; k < DateExpressionPlan.SPECIALIZE_THRESHOLD; k++) {
+            plan.evaluate(2024, 1, true, WeekFields.of(LOCALE), statistics);
+        }
+        assertTrue(plan.isSpecialized());
+        assertEquals(3 + DateExpressionPlan.SPECIALIZE_THRESHOLD, statistics.getEvaluateCount());
+
+        statistics.reset();
+        assertEquals(0, statistics.getParseCount());
+        assertEquals(0, statistics.getMaxEvaluateNanos());
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        DateExpressionStatistics statistics = new DateExpressionStatistics();
+        GrammarDfaCache dfaCache = new GrammarDfaCache(1000000);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1, dfaCache, statistics);
+        DateExpressionCache cache = new DateExpressionCache(100000);
+        DateExpressionManagement management = new DateExpressionManagement(engine, cache, statistics);
+
+        engine.parse(2024, "uno de diciembre al seis de enero");
+        engine.parse(2024, "uno de diciembre al seis de enero");
+        engine.parse(2024, "uno de diciembre al seis de enero");
+        engine.parse(2024, "uno de diciembre al seis de enero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "enero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "enero");
+
+        ObjectName name = management.register(DateExpressionManagement.DEFAULT_NAME + ",name=test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1, server.getAttribute(name, "PlanCacheSize"));
+            assertEquals(0.75, server.getAttribute(name, "PlanCacheHitRatio"));
+            assertEquals(1, server.getAttribute(name, "ResultCacheSize"));
+            assertEquals(0.5, server.getAttribute(name, "ResultCacheHitRatio"));
+            assertEquals(0L, server.getAttribute(name, "ResultCacheEvictionCount"));
+            assertEquals(1L, server.getAttribute(name, "ParseCount"));
+            assertEquals(4L, server.getAttribute(name, "EvaluateCount"));
+            assertEquals(0L, server.getAttribute(name, "FailedExpressionCount"));
+            assertTrue((Integer) server.getAttribute(name, "DfaStateCount") > 0);
+
+            // Las operaciones vacían las cachés sin reiniciar
+            server.invoke(name, "clearPlanCache", null, null);
+            server.invoke(name, "clearResultCache", null, null);
+            server.invoke(name, "clearDfaCache", null, null);
+            server.invoke(name, "resetStatistics", null, null);
+            assertEquals(0, server.getAttribute(name, "PlanCacheSize"));
+            assertEquals(0, server.getAttribute(name, "ResultCacheSize"));
+            assertEquals(0, server.getAttribute(name, "DfaStateCount"));
+            assertEquals(1L, server.getAttribute(name, "DfaClearCount"));
+            assertEquals(0L, server.getAttribute(name, "EvaluateCount"));
+            assertEquals(0.0, server.getAttribute(name, "AverageEvaluateMillis"));
+
+            // El motor sigue funcionando con las cachés vacías
+            assertNotNull(engine.parse(2024, "uno de diciembre al seis de enero"));
+            assertEquals(1, server.getAttribute(name, "PlanCacheSize"));
+        } finally {
+            management.unregister();
+        }
+        assertNull(management.getName());
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
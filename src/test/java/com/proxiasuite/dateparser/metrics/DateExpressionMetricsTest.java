@@ -0,0 +1,167 @@
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionCache;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.parser.GrammarDfaCache;
+import com.proxiasuite.dateparser.parser.OperatorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionMetricsTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    /**
+     * Receptor que anota cada notificación
+     */
+    private static class Recorder implements IDateExpressionMetrics {
+        final List<String> events = new ArrayList<>();
+        final List<OperatorType> operators = new ArrayList<>();
+        int dates = -1;
+
+        @Override
+        public void onFastPath(String expression, long nanos) {
+            events.add("fastPath");
+        }
+
+        @Override
+        public void onLex(String expression, int tokens, long nanos) {
+            events.add("lex " + tokens);
+        }
+
+        @Override
+        public void onParse(String expression, boolean valid, long nanos) {
+            events.add("parse " + valid);
+        }
+
+        @Override
+        public void onSyntaxError(String expression, int line, int position, String message) {
+            events.add("error " + line + ":" + position);
+        }
+
+        @Override
+        public void onOperator(OperatorType type, int dates, long nanos) {
+            operators.add(type);
+        }
+
+        @Override
+        public void onEvaluate(int firstYear, int years, int dates, long nanos) {
+            events.add("evaluate");
+            this.dates = dates;
+        }
+
+        @Override
+        public void onCacheHit(String cache) {
+            events.add("hit " + cache);
+        }
+
+        @Override
+        public void onCacheMiss(String cache) {
+            events.add("miss " + cache);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DateExpressionMetrics.setDefault(null);
+    }
+
+    @Test
+    public void testParse() {
+        Recorder recorder = new Recorder();
+        DateExpressionMetrics.setDefault(recorder);
+
+        // Pasa por la gramática: "tres", "antes", "primer", "sabado", "febrero" y la preposición que no se ignora
+        DateExpression de = DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "tres dias antes del primer sabado de febrero");
+        assertEquals(1, de.getDateCount());
+        assertEquals(3, recorder.events.size());
+        assertTrue(recorder.events.get(0).startsWith("lex "));
+        assertEquals("parse true", recorder.events.get(1));
+        assertEquals("evaluate", recorder.events.get(2));
+        assertEquals(1, recorder.dates);
+        assertEquals(OperatorType.Resolve, recorder.operators.get(0));
+        assertEquals(OperatorType.Before, recorder.operators.get(recorder.operators.size() - 1));
+
+        // Forma habitual, sin gramática
+        recorder.events.clear();
+        DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "uno de enero");
+        assertEquals("fastPath", recorder.events.get(0));
+        assertEquals("evaluate", recorder.events.get(1));
+
+        // Errores sintácticos
+        recorder.events.clear();
+        assertNull(DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "antes de enero"));
+        assertTrue(recorder.events.contains("error 1:0"));
+        assertEquals("parse false", recorder.events.get(recorder.events.size() - 1));
+    }
+
+    @Test
+    public void testNoMetrics() {
+        assertSame(DateExpressionMetrics.NONE, DateExpressionMetrics.getDefault());
+        DateExpressionMetrics.setDefault(new Recorder());
+        DateExpressionMetrics.setDefault(null);
+        assertSame(DateExpressionMetrics.NONE, DateExpressionMetrics.getDefault());
+    }
+
+    @Test
+    public void testEngineMetrics() {
+        Recorder global = new Recorder();
+        DateExpressionMetrics.setDefault(global);
+        Recorder tenant = new Recorder();
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1,
+                                                               GrammarDfaCache.getDefault(), tenant);
+        assertSame(tenant, engine.getMetrics());
+        engine.parse(2024, "lunes despues del lunes de pascua");
+        engine.parse(2024, "lunes despues del lunes de pascua");
+        assertEquals("miss plans", tenant.events.get(0));
+        assertTrue(tenant.events.contains("parse true"));
+        assertTrue(tenant.events.contains("hit plans"));
+        assertEquals(2, tenant.events.stream().filter("evaluate"::equals).count());
+        // Las métricas del motor no llegan al receptor por defecto
+        assertTrue(global.events.isEmpty());
+    }
+
+    @Test
+    public void testWarmUpNotReported() {
+        // El calentamiento no cuenta como tráfico real, ni global ni de un motor
+        Recorder global = new Recorder();
+        DateExpressionMetrics.setDefault(global);
+        List<String> corpus = Arrays.asList("uno de enero", "tres dias antes del primer sabado de febrero", "antes de enero");
+        assertEquals(2, DateExpression.warmUp(LOCALE, ZONE, true, 2024, 1, corpus));
+        Recorder tenant = new Recorder();
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1,
+                                                               new GrammarDfaCache(100000), tenant);
+        assertEquals(2, engine.warmUp(corpus));
+        assertTrue(global.events.isEmpty());
+        assertTrue(global.operators.isEmpty());
+        assertTrue(tenant.events.isEmpty());
+        assertEquals(0, engine.getPlanHitCount() + engine.getPlanMissCount());
+
+        // Los planes quedan guardados
+        engine.parse(2024, "tres dias antes del primer sabado de febrero");
+        assertEquals("hit plans", tenant.events.get(0));
+    }
+
+    @Test
+    public void testResultCache() {
+        Recorder recorder = new Recorder();
+        DateExpressionMetrics.setDefault(recorder);
+        DateExpressionCache cache = new DateExpressionCache(1000);
+        cache.get(LOCALE, ZONE, true, 2024, 1, "enero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "enero");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "navidad");
+        cache.get(LOCALE, ZONE, true, 2024, 1, "navidad");
+        assertEquals(2, recorder.events.stream().filter("miss results"::equals).count());
+        assertEquals(2, recorder.events.stream().filter("hit results"::equals).count());
+    }
+}
@@ -0,0 +1,87 @@
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowExpressionLogTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @AfterEach
+    public void tearDown() {
+        SlowExpressionLog.setDefault(null);
+    }
+
+    @Test
+    public void testThreshold() {
+        // Con umbral cero se captura todo
+        List<SlowExpression> received = new ArrayList<>();
+        SlowExpressionLog log = new SlowExpressionLog(0, TimeUnit.MILLISECONDS, 0, 10, received::add);
+        SlowExpressionLog.setDefault(log);
+
+        DateExpression de = DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "febrero");
+        assertNull(DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "esto no es una fecha"));
+
+        assertEquals(2, received.size());
+        assertEquals(received, log.getEntries());
+        SlowExpression first = received.get(0);
+        assertEquals("febrero", first.getExpression());
+        assertEquals(2024, first.getFirstYear());
+        assertEquals(2, first.getYears());
+        assertTrue(first.isFullWeeks());
+        assertEquals(de.getDateCount(), first.getDates());
+        assertTrue(first.isValid());
+        assertFalse(first.isSampled());
+        assertEquals(first.getCompileNanos() + first.getEvaluateNanos(), first.getTotalNanos());
+
+        SlowExpression invalid = received.get(1);
+        assertFalse(invalid.isValid());
+        assertEquals(-1, invalid.getDates());
+        assertEquals(0, invalid.getEvaluateNanos());
+    }
+
+    @Test
+    public void testSampling() {
+        // Con un umbral inalcanzable sólo se capturan las muestras
+        SlowExpressionLog never = new SlowExpressionLog(1, TimeUnit.HOURS);
+        SlowExpressionLog.setDefault(never);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1);
+        for(int i = 0; i < 20; i++) engine.parse(2024, "enero");
+        assertEquals(0, never.getCapturedCount());
+
+        SlowExpressionLog always = new SlowExpressionLog(1, TimeUnit.HOURS, 1, 10, null);
+        SlowExpressionLog.setDefault(always);
+        for(int i = 0; i < 20; i++) engine.parse(2024, "enero");
+        assertEquals(20, always.getCapturedCount());
+        assertTrue(always.getEntries().get(0).isSampled());
+    }
+
+    @Test
+    public void testRingBuffer() {
+        // El buffer guarda las últimas capturas, de la más antigua a la más reciente
+        SlowExpressionLog log = new SlowExpressionLog(0, TimeUnit.MILLISECONDS, 0, 3, null);
+        for(int i = 0; i < 5; i++) {
+            log.record("expresion " + i, 2024, 1, true, 10, 10, null);
+        }
+        List<SlowExpression> entries = log.getEntries();
+        assertEquals(5, log.getCapturedCount());
+        assertEquals(3, entries.size());
+        assertEquals("expresion 2", entries.get(0).getExpression());
+        assertEquals("expresion 4", entries.get(2).getExpression());
+
+        log.clear();
+        assertEquals(0, log.getEntries().size());
+        assertEquals(0, log.getCapturedCount());
+    }
+}
@@ -0,0 +1,115 @@
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.DateExpressionLimits;
+import com.proxiasuite.dateparser.TestExpressions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionPlanTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testSamePlanManyWindows() {
+        String expr = "primer lunes de enero al quince de febrero y dos dias despues de semana santa";
+        DateExpressionPlan plan = DateExpression.compile(expr);
+        assertNotNull(plan);
+        // El mismo plan sirve para cualquier ventana de años
+        for(int year = 2020; year < 2030; year += 3) {
+            assertEquals(DateExpression.parse(LOCALE, ZONE, true, year, 2, expr).getDates(),
+                         plan.evaluate(year, 2, true, WeekFields.of(LOCALE)).getDates());
+        }
+    }
+
+    @Test
+    public void testInstructions() {
+        DateExpressionPlan plan = DateExpression.compile("aprox uno de enero y febrero");
+        assertEquals(6, plan.getInstructions().size());
+        assertEquals(OperatorType.And, plan.getInstructions().get(5).getType());
+        assertEquals(plan.getInstructions().get(5).getTarget(), plan.getResult());
+        assertTrue(plan.isApproximate());
+        assertTrue(plan.toString().endsWith("return r" + plan.getResult() + " aprox"));
+    }
+
+    @Test
+    public void testUnusedDefinitionIsNotEvaluated() {
+        DateExpressionPlan plan = DateExpression.compile("def fiesta: enero y febrero\nuno de enero");
+        // La definición sin usar no forma parte del plan
+        assertTrue(plan.getInstructions().stream().noneMatch(i->i.getType() == OperatorType.And), plan.toString());
+
+        // Enero y febrero superan el límite de fechas: ni interpretando ni especializado se evalúa
+        DateExpressionLimits previous = DateExpressionLimits.getDefault();
+        try {
+            DateExpressionLimits.setDefault(new DateExpressionLimits(100, 40, 32, 1000, 1000));
+            WeekFields week = WeekFields.of(LOCALE);
+            List<LocalDate> interpreted = plan.evaluate(2024, 1, true, week).getDates();
+            plan.specialize();
+            assertEquals(interpreted, plan.evaluate(2024, 1, true, week).getDates());
+            assertEquals(1, interpreted.size());
+        } finally {
+            DateExpressionLimits.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        // Sin operando sobre el que aplicar el desplazamiento
+        assertNull(DateExpression.compile("navidad"));
+        assertNull(DateExpression.compile("dos dias antes de"));
+        assertNull(new DateExpressionEngine(LOCALE, ZONE, true, 1).compile("navidad"));
+    }
+
+    @Test
+    public void testEngineReusesPlans() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 2);
+        DateExpressionPlan plan = engine.compile("quince de agosto");
+        assertSame(plan, engine.compile("quince de agosto"));
+        assertEquals(DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "quince de agosto").getDates(),
+                     engine.parse(2024, "quince de agosto").getDates());
+    }
+
+    @Test
+    public void testSpecializedMatchesInterpreted() {
+        WeekFields week = WeekFields.of(LOCALE);
+        for(String expr: TestExpressions.VALID) {
+            DateExpressionPlan interpreted = DateExpression.compile(expr);
+            DateExpressionPlan specialized = DateExpression.compile(expr);
+            if(interpreted == null) {
+                // "del 3 al 4 de julio" no la admite la gramática actual
+                continue;
+            }
+            specialized.specialize();
+            assertFalse(interpreted.isSpecialized());
+            assertTrue(specialized.isSpecialized());
+            for(int year = 2023; year < 2027; year++) {
+                DateExpression expected = interpreted.evaluate(year, 2, true, week);
+                DateExpression actual = specialized.evaluate(year, 2, true, week);
+                assertEquals(expected.getDates(), actual.getDates(), expr);
+                assertEquals(expected.isApproximate(), actual.isApproximate(), expr);
+            }
+        }
+    }
+
+    @Test
+    public void testSpecializeThreshold() {
+        // La definición se lee dos veces y se calcula una única vez por evaluación
+        String expr = "def verano: 21 de junio al 22 de septiembre\r\n" +
+                      "si verano es igual a verano entonces verano y enero si no febrero";
+        DateExpressionPlan plan = DateExpression.compile(expr);
+        List<LocalDate> expected = plan.evaluate(2024, 1, true, WeekFields.of(LOCALE)).getDates();
+        for(int k = 1; k < DateExpressionPlan.SPECIALIZE_THRESHOLD; k++) {
+            plan.evaluate(2024, 1, true, WeekFields.of(LOCALE));
+        }
+        assertTrue(plan.isSpecialized());
+        assertEquals(expected, plan.evaluate(2024, 1, true, WeekFields.of(LOCALE)).getDates());
+    }
+}
@@ -0,0 +1,47 @@
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.TestExpressions;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionVisitorTest {
+
+    private static DateExpressionGrammarParser parser(String expr) {
+        return new DateExpressionGrammarParser(new CommonTokenStream(
+                new DateExpressionGrammarLexer(CharStreams.fromString(expr))));
+    }
+
+    @Test
+    public void testWithoutParseTree() {
+        List<String> expressions = new ArrayList<>(TestExpressions.VALID);
+        expressions.addAll(TestExpressions.INVALID);
+        expressions.addAll(TestExpressions.RECOVERED);
+        for(String expr: expressions) {
+            // Con árbol sintáctico, como se registraba antes el visitante
+            DateExpressionVisitor withTree = new DateExpressionVisitor(ZoneOffset.UTC, Locale.ROOT, 0, 0, false);
+            DateExpressionGrammarParser treeParser = parser(expr);
+            treeParser.addParseListener(withTree);
+            treeParser.prog();
+
+            DateExpressionVisitor withoutTree = new DateExpressionVisitor(ZoneOffset.UTC, Locale.ROOT, 0, 0, false);
+            DateExpressionGrammarParser plainParser = parser(expr);
+            withoutTree.attach(plainParser);
+            ParserRuleContext prog = plainParser.prog();
+
+            // Las reglas terminadas no quedan colgando del contexto raíz
+            assertNull(prog.getChild(ParserRuleContext.class, 0), expr);
+            assertEquals(String.valueOf(withTree.getPlan()), String.valueOf(withoutTree.getPlan()), expr);
+        }
+    }
+}
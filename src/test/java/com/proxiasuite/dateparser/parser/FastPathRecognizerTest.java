@@ -0,0 +1,112 @@
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.TestExpressions;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarLexer;
+import com.proxiasuite.dateparser.grammar.DateExpressionGrammarParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastPathRecognizerTest {
+
+    /**
+     * Plan generado por la gramática, sin el reconocedor
+     */
+    private static String grammarPlan(String expr) {
+        DateExpressionVisitor visitor = new DateExpressionVisitor(ZoneOffset.UTC, Locale.ROOT, 0, 0, false);
+        DateExpressionGrammarParser parser = new DateExpressionGrammarParser(new CommonTokenStream(
+                new DateExpressionGrammarLexer(CharStreams.fromString(expr))));
+        parser.removeErrorListeners();
+        visitor.attach(parser);
+        parser.prog();
+        return String.valueOf(visitor.getPlan());
+    }
+
+    private static void assertSamePlan(String expr) {
+        DateExpressionPlan plan = FastPathRecognizer.compile(expr);
+        if(plan != null) {
+            assertEquals(grammarPlan(expr), plan.toString(), expr);
+        }
+    }
+
+    @Test
+    public void testWordsAreSingleTokens() {
+        // Cada palabra conocida es un único token (o ninguno si la gramática la ignora) y no un identificador
+        for(String word: FastPathRecognizer.words()) {
+            for(String text: Arrays.asList(word, word.toUpperCase(Locale.ROOT))) {
+                List<? extends Token> tokens = new DateExpressionGrammarLexer(CharStreams.fromString(text)).getAllTokens();
+                assertTrue(tokens.size() <= 1, text);
+                if(!tokens.isEmpty()) {
+                    assertNotEquals(DateExpressionGrammarLexer.ID, tokens.get(0).getType(), text);
+                    assertEquals(text.length(), tokens.get(0).getText().length(), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testShapes() {
+        List<String> shapes = Arrays.asList(
+                "uno de enero", "enero", "Semana Santa", "carnaval", "1 de MAYO", "31 de diciembre",
+                "treinta y uno de enero", "treinta y un de enero", "primer lunes de enero", "3 y 4 de julio",
+                "tercer fin de semana de agosto", "ultima semana de febrero", "primera quincena de febrero",
+                "penúltimo miércoles de marzo", "miercoles de ceniza", "lunes de marzo",
+                "3 y cuarto domingo de junio y 1 de abril", "1, 2 y 3 de enero, 4 de febrero",
+                "aprox primera quincena de febrero", "corpus christi", "primer jueves y viernes de mayo",
+                "decimoquinto dia de agosto", "vigesimoprimero de enero");
+        for(String expr: shapes) {
+            assertNotNull(FastPathRecognizer.compile(expr), expr);
+            assertSamePlan(expr);
+        }
+    }
+
+    @Test
+    public void testFallback() {
+        List<String> others = new ArrayList<>(TestExpressions.INVALID);
+        others.addAll(TestExpressions.RECOVERED);
+        others.addAll(Arrays.asList(
+                "", "tres dias antes del primer sabado de febrero", "del 3 al 4 de julio", "fin de enero",
+                "semana santas", "fin de semanas de enero", "primer lunes martes de enero", "lunes y martes de enero",
+                "treinta y unos de enero", "1de enero", "fiestaslocales", "enero_", "uno de enero,",
+                "def navidad: 25 de diciembre\r\nnavidad", "aproximadamente enero"));
+        for(String expr: others) {
+            assertNull(FastPathRecognizer.compile(expr), expr);
+        }
+    }
+
+    @Test
+    public void testDifferential() {
+        // Las expresiones de las pruebas de la gramática
+        for(String expr: TestExpressions.VALID) {
+            assertSamePlan(expr);
+        }
+
+        // Combinaciones aleatorias de palabras conocidas y de otras que no lo son
+        List<String> vocabulary = new ArrayList<>(FastPathRecognizer.words());
+        vocabulary.addAll(Arrays.asList("semana", "santa", "fin", "de", "miercoles", "ceniza", "corpus", "christi",
+                                        "treinta", "y", "uno", ",", "12", "antes", "al", "si", "navidad"));
+        Random random = new Random(2024);
+        int recognized = 0;
+        for(int k = 0; k < 20000; k++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for(int w = 0; w < length; w++) {
+                sb.append(vocabulary.get(random.nextInt(vocabulary.size()))).append(' ');
+            }
+            String expr = sb.toString();
+            if(FastPathRecognizer.compile(expr) != null) recognized++;
+            assertSamePlan(expr);
+        }
+        assertTrue(recognized > 100, "reconocidas: " + recognized);
+    }
+}
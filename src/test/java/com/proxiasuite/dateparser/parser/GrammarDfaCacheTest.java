@@ -0,0 +1,117 @@
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.TestExpressions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrammarDfaCacheTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final Clock CLOCK = Clock.system(ZoneId.of("Europe/Madrid"));
+
+    @Test
+    public void testOwnCache() {
+        GrammarDfaCache tenant = new GrammarDfaCache(100000);
+        GrammarDfaCache other = new GrammarDfaCache(100000);
+        assertEquals(0, tenant.size());
+
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, CLOCK, true, 2, tenant);
+        assertSame(tenant, engine.getDfaCache());
+        // Con condiciones, la expresión pasa por la gramática
+        assertNotNull(engine.compile(TestExpressions.VALID.get(TestExpressions.VALID.size() - 1)));
+        assertTrue(tenant.size() > 0);
+        assertEquals(0, other.size());
+    }
+
+    @Test
+    public void testTrim() {
+        GrammarDfaCache cache = new GrammarDfaCache(1);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, CLOCK, true, 2, cache);
+        // El tamaño sólo se comprueba cada TRIM_INTERVAL análisis con la gramática
+        String grammar = "uno de diciembre al seis de enero";
+        for(int i = 1; i < GrammarDfaCache.TRIM_INTERVAL; i++) {
+            engine.clearPlans();
+            engine.compile(grammar);
+        }
+        assertEquals(0, cache.getClearCount());
+        assertTrue(cache.size() > 1);
+        engine.clearPlans();
+        engine.compile(grammar);
+        assertEquals(1, cache.getClearCount());
+        assertEquals(0, cache.size());
+
+        for(String expr: TestExpressions.VALID) {
+            DateExpression expected = DateExpression.parse(LOCALE, CLOCK.getZone(), true, 2024, 2, expr);
+            DateExpression actual = engine.parse(2024, expr);
+            assertEquals(expected == null ? null : expected.getDates(), actual == null ? null : actual.getDates(), expr);
+        }
+        assertTrue(cache.trim());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+        GrammarDfaCache cache = new GrammarDfaCache(100000);
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, CLOCK, true, 2, cache);
+        engine.compile("tres dias antes del primer sabado de febrero");
+        assertTrue(cache.size() > 0);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getClearCount());
+        assertFalse(cache.trim());
+        assertThrows(IllegalArgumentException.class, ()->new GrammarDfaCache(0));
+    }
+
+    @Test
+    public void testShards() throws Exception {
+        GrammarDfaCache cache = new GrammarDfaCache(100000, 4);
+        assertEquals(4, cache.getShards());
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, CLOCK, true, 2, cache);
+
+        // Varios hilos compilando a la vez, cada uno con su partición
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> plans = new ArrayList<>();
+            for(int k = 0; k < 200; k++) {
+                String expr = TestExpressions.VALID.get(k % TestExpressions.VALID.size());
+                plans.add(executor.submit(()->{
+                    DateExpression de = engine.parse(2024, expr);
+                    return String.valueOf(de == null ? null : de.getDates());
+                }));
+            }
+            for(int k = 0; k < plans.size(); k++) {
+                String expr = TestExpressions.VALID.get(k % TestExpressions.VALID.size());
+                DateExpression expected = DateExpression.parse(LOCALE, CLOCK.getZone(), true, 2024, 2, expr);
+                assertEquals(String.valueOf(expected == null ? null : expected.getDates()), plans.get(k).get(), expr);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() > 0);
+        assertThrows(IllegalArgumentException.class, ()->new GrammarDfaCache(10, 0));
+    }
+
+    @Test
+    public void testDefault() {
+        GrammarDfaCache previous = GrammarDfaCache.getDefault();
+        try {
+            GrammarDfaCache cache = GrammarDfaCache.perProcessor(1000);
+            GrammarDfaCache.setDefault(cache);
+            assertNotNull(DateExpression.compile("tres dias antes del primer sabado de febrero"));
+            assertTrue(cache.size() > 0);
+        } finally {
+            GrammarDfaCache.setDefault(previous);
+        }
+    }
+}
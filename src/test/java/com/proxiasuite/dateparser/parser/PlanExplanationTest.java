@@ -0,0 +1,68 @@
+package com.proxiasuite.dateparser.parser;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import com.proxiasuite.dateparser.TestExpressions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanExplanationTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testTree() {
+        PlanExplanation explanation = DateExpression.explain(LOCALE, true, 2024, 2, "tres dias antes del primer sabado de febrero");
+        ExplainNode root = explanation.getRoot();
+        assertEquals(OperatorType.Before, root.getType());
+        assertEquals("3 Days", root.getArguments());
+        assertEquals(2, root.getInputDateCount());
+        assertEquals(1, (int) root.getOutputDates().get(2025));
+
+        // Bajando por el primer operando llegamos a las fechas de febrero
+        ExplainNode node = root;
+        while(!node.getChildren().isEmpty()) node = node.getChildren().get(0);
+        assertEquals(OperatorType.Resolve, node.getType());
+        assertEquals("February", node.getArguments());
+        assertEquals(29, (int) node.getOutputDates().get(2024));
+        assertEquals(28, (int) node.getOutputDates().get(2025));
+        assertEquals(0, node.getInputDateCount());
+
+        String text = explanation.toString();
+        assertTrue(text.startsWith("2 años desde 2024"), text);
+        assertTrue(text.contains("Before 3 Days"), text);
+        assertTrue(text.contains("-> Resolve February"), text);
+        assertTrue(text.contains("salida 57 fechas 28.5/año"), text);
+    }
+
+    @Test
+    public void testSharedRegister() {
+        PlanExplanation explanation = DateExpression.explain(LOCALE, true, 2024, 1,
+                "def fiesta: 25 de diciembre\r\nsi fiesta es igual a fiesta\r\nentonces enero\r\nsi no febrero");
+        ExplainNode root = explanation.getRoot();
+        assertEquals(OperatorType.Compare, root.getType());
+        // La definición es un único registro que leen los dos operandos de la comparación
+        assertSame(root.getChildren().get(0).getChildren().get(0), root.getChildren().get(1).getChildren().get(0));
+        assertTrue(explanation.toString().contains("(ya mostrado)"), explanation.toString());
+    }
+
+    @Test
+    public void testSameResult() {
+        DateExpressionEngine engine = new DateExpressionEngine(LOCALE, ZONE, true, 3);
+        for(String expr: TestExpressions.VALID) {
+            DateExpressionPlan plan = engine.compile(expr);
+            if(plan == null) continue;
+            PlanExplanation explanation = plan.explain(2024, 3, true, WeekFields.of(LOCALE));
+            DateExpression expected = engine.parse(2024, expr);
+            assertEquals(expected.getDates(), explanation.getResult().getDates(), expr);
+            assertEquals(expected.isApproximate(), explanation.getResult().isApproximate(), expr);
+            assertEquals(expected.getDateCount(), explanation.getRoot().getOutputDateCount(), expr);
+        }
+        assertNull(DateExpression.explain(LOCALE, true, 2024, 1, "navidad"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.proxiasuite.dateparser.resolver;
+
+import com.proxiasuite.dateparser.DateExpression;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateResolverRegistryTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testSingletons() {
+        for(DateType dt: DateType.values()) {
+            assertSame(IDateResolver.getInstance(dt), IDateResolver.getInstance(dt));
+            assertSame(DateResolverRegistry.getDefault().get(dt), IDateResolver.getInstance(dt));
+        }
+    }
+
+    @Test
+    public void testCachedMatchesResolver() {
+        DateResolverRegistry registry = DateResolverRegistry.getDefault();
+        for(DateType dt: DateType.values()) {
+            List<LocalDate> expected = registry.get(dt).resolve(2024, 5, true, LOCALE, ZONE).getDates();
+            assertEquals(expected, registry.resolve(dt, 2024, 5, true, LOCALE).getDates());
+            // Segunda vez desde la caché, con una ventana solapada
+            assertEquals(registry.get(dt).resolve(2026, 3, true, LOCALE, ZONE).getDates(),
+                         registry.resolve(dt, 2026, 3, true, LOCALE).getDates());
+        }
+    }
+
+    @Test
+    public void testServiceLoaderAtom() {
+        assertTrue(DateResolverRegistry.getDefault().getAtomNames().contains("fiestaslocales"));
+
+        DateExpression de = DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "fiestaslocales");
+        assertEquals(Arrays.asList(LocalDate.of(2024,5,15), LocalDate.of(2024,9,9),
+                                   LocalDate.of(2025,5,15), LocalDate.of(2025,9,8)), de.getDates());
+
+        // Los átomos propios se combinan con el resto de la gramática
+        de = DateExpression.parse(LOCALE, ZONE, true, 2024, 2, "ultimo FiestasLocales");
+        assertEquals(Arrays.asList(LocalDate.of(2024,9,9), LocalDate.of(2025,9,8)), de.getDates());
+
+        // Una variable con el mismo nombre tiene prioridad
+        de = DateExpression.parse(LOCALE, ZONE, true, 2024, 1, "def fiestaslocales: uno de enero\nfiestaslocales");
+        assertEquals(Collections.singletonList(LocalDate.of(2024,1,1)), de.getDates());
+    }
+
+    @Test
+    public void testTableResolver() {
+        TableResolver tr = new TableResolver(Arrays.asList(LocalDate.of(2030,1,2), LocalDate.of(2030,1,1), LocalDate.of(2030,1,1)));
+        assertEquals(Arrays.asList(LocalDate.of(2030,1,1), LocalDate.of(2030,1,2)), tr.resolveYear(2030));
+        assertTrue(tr.resolveYear(2031).isEmpty());
+        assertEquals(2, tr.resolve(2029, 3, true, LOCALE, ZONE).getDates().size());
+    }
+}
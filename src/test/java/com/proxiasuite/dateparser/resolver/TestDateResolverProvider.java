@@ -0,0 +1,18 @@
+package com.proxiasuite.dateparser.resolver;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Proveedor de prueba, registrado en META-INF/services, con las fiestas locales de un municipio
+ */
+public class TestDateResolverProvider implements IDateResolverProvider {
+    @Override
+    public Map<String, IDateResolver> getResolvers() {
+        return Collections.singletonMap("FiestasLocales", new TableResolver(Arrays.asList(
+                LocalDate.of(2025,9,8), LocalDate.of(2024,9,9), LocalDate.of(2024,5,15),
+                LocalDate.of(2025,5,15), LocalDate.of(2026,5,15))));
+    }
+}
@@ -0,0 +1,89 @@
+package com.proxiasuite.dateparser.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionSchedulerTest {
+    private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+    /**
+     * Reloj que sólo avanza cuando se lo indicamos
+     */
+    static class ManualClock extends Clock {
+        volatile Instant instant;
+
+        ManualClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    public void testFireAndReschedule() throws InterruptedException {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ManualClock clock = new ManualClock(Instant.parse("2025-01-01T08:59:59.950Z"));
+            DateExpressionScheduler scheduler = new DateExpressionScheduler(executor, clock);
+            DateExpressionTrigger trigger = new DateExpressionTrigger("uno de enero", new Locale("es","ES"), MADRID, true, LocalTime.of(10,0));
+
+            CountDownLatch fired = new CountDownLatch(1);
+            DateExpressionScheduler.ScheduledTrigger st = scheduler.schedule(trigger, fired::countDown);
+            assertEquals(ZonedDateTime.of(2025,1,1,10,0,0,0,MADRID),st.getNextFireTime());
+            assertEquals(1,scheduler.size());
+
+            clock.instant = Instant.parse("2025-01-01T09:00:00Z");
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+
+            // Se recalcula sólo el siguiente disparo
+            long deadline = System.currentTimeMillis() + 5000;
+            while(!ZonedDateTime.of(2026,1,1,10,0,0,0,MADRID).equals(st.getNextFireTime()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(ZonedDateTime.of(2026,1,1,10,0,0,0,MADRID),st.getNextFireTime());
+
+            st.cancel();
+            assertNull(st.getNextFireTime());
+            assertEquals(0,scheduler.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancelAll() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            DateExpressionScheduler scheduler = new DateExpressionScheduler(executor, Clock.system(MADRID));
+            for(String expr: new String[]{"uno de enero","seis de enero","primer lunes de mayo"}) {
+                scheduler.schedule(new DateExpressionTrigger(expr, new Locale("es","ES"), MADRID, true, LocalTime.NOON), ()->{});
+            }
+            assertEquals(3,scheduler.size());
+            scheduler.cancelAll();
+            assertEquals(0,scheduler.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.proxiasuite.dateparser.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateExpressionTriggerTest {
+    private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testNextFireTime() {
+        DateExpressionTrigger trigger = new DateExpressionTrigger("uno de enero", new Locale("es","ES"), MADRID, true, LocalTime.of(10,0));
+        assertEquals(ZonedDateTime.of(2025,1,1,10,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2024-06-01T00:00:00Z")));
+        // El mismo día, antes de la hora
+        assertEquals(ZonedDateTime.of(2025,1,1,10,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2025-01-01T08:00:00Z")));
+        // Justo en el disparo pasamos al siguiente
+        assertEquals(ZonedDateTime.of(2026,1,1,10,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2025-01-01T09:00:00Z")));
+        // Lejos de la ventana inicial
+        assertEquals(ZonedDateTime.of(2041,1,1,10,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2040-05-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testDaylightSavingGap() {
+        DateExpressionTrigger trigger = new DateExpressionTrigger("ultimo domingo de marzo", new Locale("es","ES"), MADRID, true, LocalTime.of(2,30));
+        ZonedDateTime fire = trigger.nextFireTime(Instant.parse("2024-01-01T00:00:00Z"));
+        assertEquals(LocalDateTime.of(2024,3,31,3,30),fire.toLocalDateTime());
+        assertEquals(ZoneOffset.ofHours(2),fire.getOffset());
+    }
+
+    @Test
+    public void testCrossYearPeriod() {
+        DateExpressionTrigger trigger = new DateExpressionTrigger("uno de diciembre al seis de enero", new Locale("es","ES"), MADRID, true, LocalTime.NOON);
+        assertEquals(LocalDate.of(2030,1,2),trigger.nextFireTime(Instant.parse("2030-01-01T13:00:00Z")).toLocalDate());
+    }
+
+    @Test
+    public void testClock() {
+        // El año en curso y la zona se obtienen del reloj
+        Clock clock = Clock.fixed(Instant.parse("2030-06-01T00:00:00Z"), MADRID);
+        DateExpressionTrigger trigger = new DateExpressionTrigger("uno de enero", new Locale("es","ES"), clock, true, LocalTime.NOON);
+        assertEquals(MADRID, trigger.getZoneId());
+        assertEquals(ZonedDateTime.of(2031,1,1,12,0,0,0,MADRID),trigger.nextFireTime(clock.instant()));
+        assertThrows(IllegalArgumentException.class,()->new DateExpressionTrigger("navidad", new Locale("es","ES"), clock, true, LocalTime.NOON));
+    }
+
+    @Test
+    public void testLongShift() {
+        // Un desplazamiento de más de un año necesita más de un año de margen en la ventana
+        Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), MADRID);
+        DateExpressionTrigger trigger = new DateExpressionTrigger("30 meses despues del 1 de enero", new Locale("es","ES"), clock, true, LocalTime.NOON);
+        // El uno de julio de 2026 viene del uno de enero de 2024
+        assertEquals(ZonedDateTime.of(2026,7,1,12,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2026-01-01T00:00:00Z")));
+        assertEquals(ZonedDateTime.of(2027,7,1,12,0,0,0,MADRID),trigger.nextFireTime(Instant.parse("2026-07-02T00:00:00Z")));
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        assertThrows(IllegalArgumentException.class,()->new DateExpressionTrigger("navidad", new Locale("es","ES"), MADRID, true, LocalTime.NOON));
+    }
+}
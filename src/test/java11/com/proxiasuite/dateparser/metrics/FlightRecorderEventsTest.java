@@ -0,0 +1,106 @@
+package com.proxiasuite.dateparser.metrics;
+
+import com.proxiasuite.dateparser.DateExpression;
+import com.proxiasuite.dateparser.DateExpressionCache;
+import com.proxiasuite.dateparser.DateExpressionEngine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEventsTest {
+    private static final Locale LOCALE = new Locale("es","ES");
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void testEvents() throws Exception {
+        assertTrue(FlightRecorderEvents.isAvailable());
+        // Sin grabación no se crea ningún evento
+        assertNull(FlightRecorderEvents.beginParse());
+
+        String expr = "tres dias antes del primer sabado de febrero";
+        Path file = Files.createTempFile("date-expression", ".jfr");
+        try(Recording recording = new Recording()) {
+            recording.enable("com.proxiasuite.dateparser.Parse");
+            recording.enable("com.proxiasuite.dateparser.Evaluate");
+            recording.enable("com.proxiasuite.dateparser.Resolve");
+            recording.enable("com.proxiasuite.dateparser.CacheLookup");
+            recording.start();
+
+            DateExpressionEngine engine = new DateExpressionEngine(LOCALE, Clock.system(ZONE), true, 1);
+            engine.parse(2024, expr);
+            engine.parse(2024, expr);
+            new DateExpressionCache(1000).get(LOCALE, ZONE, true, 2024, 1, expr);
+
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        List<RecordedEvent> parse = named(events, "Parse");
+        assertFalse(parse.isEmpty());
+        assertEquals(expr.hashCode(), parse.get(0).getInt("expressionHash"));
+        assertTrue(parse.get(0).getBoolean("valid"));
+
+        RecordedEvent evaluate = named(events, "Evaluate").get(0);
+        assertEquals(2024, evaluate.getInt("firstYear"));
+        assertEquals(1, evaluate.getInt("years"));
+        assertEquals(1, evaluate.getInt("dates"));
+        assertFalse(evaluate.getDuration().isNegative());
+
+        assertTrue(named(events, "Resolve").stream().anyMatch(e->"February".equals(e.getString("resolver"))));
+
+        List<RecordedEvent> lookups = named(events, "CacheLookup");
+        assertEquals(1, lookups.stream().filter(e->e.getBoolean("hit") && "plans".equals(e.getString("cache"))).count());
+        assertEquals(1, lookups.stream().filter(e->!e.getBoolean("hit") && "results".equals(e.getString("cache"))).count());
+    }
+
+    @Test
+    public void testWithoutJfr() throws Exception {
+        // En una JVM sin el módulo jdk.jfr, como una imagen de jlink, se usa la versión que no hace nada
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "--limit-modules", "java.base",
+                                             "-cp", System.getProperty("java.class.path"),
+                                             WithoutJfr.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String output;
+        try(InputStream in = process.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            output = out.toString(StandardCharsets.UTF_8).trim();
+        }
+        assertEquals(0, process.waitFor(), output);
+        assertEquals("false 1", output);
+    }
+
+    /**
+     * Programa de {@link #testWithoutJfr}, indica si hay eventos y las fechas de una expresión
+     */
+    public static class WithoutJfr {
+        public static void main(String[] args) {
+            DateExpression de = DateExpression.parse(LOCALE, ZONE, true, 2024, 1,
+                                                     "tres dias antes del primer sabado de febrero");
+            System.out.println(FlightRecorderEvents.isAvailable() + " " + de.getDateCount());
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e->e.getEventType().getName().equals("com.proxiasuite.dateparser." + name))
+                     .collect(Collectors.toList());
+    }
+}